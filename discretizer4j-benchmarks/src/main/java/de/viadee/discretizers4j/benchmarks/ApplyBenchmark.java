@@ -0,0 +1,67 @@
+package de.viadee.discretizers4j.benchmarks;
+
+import de.viadee.discretizers4j.AbstractDiscretizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies fitted discretizers to a batch of values
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApplyBenchmark {
+    private static final int TRAINING_ROWS = 10000;
+
+    @Param({"PERCENTILE_MEDIAN", "EQUAL_SIZE", "EQUAL_WIDTH", "MANUAL", "UNIQUE_VALUE", "MDLP", "AMEVA", "FUSINTER"})
+    public DiscretizerKind kind;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    @Param({"16", "10000"})
+    public int cardinality;
+
+    private AbstractDiscretizer discretizer;
+    private double[] values;
+    private Serializable[] boxedValues;
+    private double[] discretizedValues;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final double[] training = SyntheticData.values(TRAINING_ROWS, cardinality, 42L);
+        discretizer = kind.create(cardinality);
+        if (kind.isSupervised()) {
+            discretizer.fit(SyntheticData.boxed(training),
+                    SyntheticData.labels(SyntheticData.classIndices(training, cardinality, 3, 43L)));
+        } else {
+            discretizer.fit(SyntheticData.boxed(training));
+        }
+
+        // UniqueValue only discretizes values seen while fitting, so all discretizers are probed with training values
+        values = SyntheticData.sample(training, rows, 44L);
+        boxedValues = SyntheticData.boxed(values);
+        discretizedValues = new double[rows];
+    }
+
+    @Benchmark
+    public Double[] applyBoxed() {
+        return discretizer.apply(boxedValues);
+    }
+
+    @Benchmark
+    public double[] applyPrimitive() {
+        discretizer.apply(values, discretizedValues);
+        return discretizedValues;
+    }
+
+    @Benchmark
+    public int[] applyToIndex() {
+        return discretizer.applyToIndex(values);
+    }
+}
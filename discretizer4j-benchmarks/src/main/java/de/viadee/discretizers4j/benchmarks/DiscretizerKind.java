@@ -0,0 +1,78 @@
+package de.viadee.discretizers4j.benchmarks;
+
+import de.viadee.discretizers4j.AbstractDiscretizer;
+import de.viadee.discretizers4j.impl.*;
+
+/**
+ * The benchmarked discretizers and their configuration
+ */
+public enum DiscretizerKind {
+    PERCENTILE_MEDIAN(false) {
+        @Override
+        AbstractDiscretizer create(int cardinality) {
+            return new PercentileMedianDiscretizer(10);
+        }
+    },
+    EQUAL_SIZE(false) {
+        @Override
+        AbstractDiscretizer create(int cardinality) {
+            return new EqualSizeDiscretizer();
+        }
+    },
+    EQUAL_WIDTH(false) {
+        @Override
+        AbstractDiscretizer create(int cardinality) {
+            return new EqualWidthDiscretizer(10);
+        }
+    },
+    MANUAL(false) {
+        @Override
+        AbstractDiscretizer create(int cardinality) {
+            final Double[] classBoundaries = new Double[9];
+            for (int i = 0; i < classBoundaries.length; i++) {
+                classBoundaries[i] = (i + 1) * cardinality / 20D;
+            }
+            return new ManualDiscretizer(classBoundaries);
+        }
+    },
+    UNIQUE_VALUE(false) {
+        @Override
+        AbstractDiscretizer create(int cardinality) {
+            return new UniqueValueDiscretizer();
+        }
+    },
+    MDLP(true) {
+        @Override
+        AbstractDiscretizer create(int cardinality) {
+            return new MDLPDiscretizer();
+        }
+    },
+    AMEVA(true) {
+        @Override
+        AbstractDiscretizer create(int cardinality) {
+            return new AmevaDiscretizer();
+        }
+    },
+    FUSINTER(true) {
+        @Override
+        AbstractDiscretizer create(int cardinality) {
+            return new FUSINTERDiscretizer();
+        }
+    };
+
+    private final boolean supervised;
+
+    DiscretizerKind(boolean supervised) {
+        this.supervised = supervised;
+    }
+
+    /**
+     * @param cardinality cardinality of the generated column, used to place manual class boundaries
+     * @return a new, unfitted discretizer
+     */
+    abstract AbstractDiscretizer create(int cardinality);
+
+    boolean isSupervised() {
+        return supervised;
+    }
+}
@@ -0,0 +1,59 @@
+package de.viadee.discretizers4j.benchmarks;
+
+import de.viadee.discretizers4j.AbstractDiscretizer;
+import de.viadee.discretizers4j.AbstractSupervisedDiscretizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fits the supervised discretizers from boxed and from primitive columns
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SupervisedFitBenchmark {
+
+    @Param({"MDLP", "AMEVA", "FUSINTER"})
+    public DiscretizerKind kind;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    @Param({"16", "10000"})
+    public int cardinality;
+
+    @Param({"2", "5"})
+    public int classCount;
+
+    private double[] values;
+    private int[] classIndices;
+    private Serializable[] boxedValues;
+    private Double[] labels;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = SyntheticData.values(rows, cardinality, 42L);
+        classIndices = SyntheticData.classIndices(values, cardinality, classCount, 43L);
+        boxedValues = SyntheticData.boxed(values);
+        labels = SyntheticData.labels(classIndices);
+    }
+
+    @Benchmark
+    public AbstractDiscretizer fitBoxed() {
+        final AbstractDiscretizer discretizer = kind.create(cardinality);
+        discretizer.fit(boxedValues, labels);
+        return discretizer;
+    }
+
+    @Benchmark
+    public AbstractDiscretizer fitPrimitive() {
+        final AbstractSupervisedDiscretizer discretizer = (AbstractSupervisedDiscretizer) kind.create(cardinality);
+        discretizer.fit(values, classIndices);
+        return discretizer;
+    }
+}
@@ -0,0 +1,85 @@
+package de.viadee.discretizers4j.benchmarks;
+
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Seeded generators for benchmark columns
+ */
+final class SyntheticData {
+    private static final double LABEL_NOISE = 0.1;
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Generates a numeric column
+     *
+     * @param rows        number of values
+     * @param cardinality number of distinct values to draw from, spread over [0, cardinality / 2)
+     * @param seed        random seed
+     * @return the values in random order
+     */
+    static double[] values(int rows, int cardinality, long seed) {
+        final Random random = new Random(seed);
+        final double[] values = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = random.nextInt(cardinality) / 2D;
+        }
+        return values;
+    }
+
+    /**
+     * Draws values of a column with replacement, e.g. to apply a discretizer only to values it has been fitted on
+     *
+     * @param column the column to draw from
+     * @param rows   number of values
+     * @param seed   random seed
+     * @return the values drawn, in random order
+     */
+    static double[] sample(double[] column, int rows, long seed) {
+        final Random random = new Random(seed);
+        final double[] values = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = column[random.nextInt(column.length)];
+        }
+        return values;
+    }
+
+    /**
+     * Generates classes depending on the value's band, with some label noise, so supervised discretizers find
+     * meaningful cut points
+     *
+     * @param values      the column
+     * @param cardinality cardinality the column was generated with
+     * @param classCount  number of classes
+     * @param seed        random seed
+     * @return the class index of each value
+     */
+    static int[] classIndices(double[] values, int cardinality, int classCount, long seed) {
+        final Random random = new Random(seed);
+        final int bands = 2 * classCount;
+        final int[] classIndices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            final int band = (int) (values[i] * 2 * bands / cardinality);
+            classIndices[i] = (random.nextDouble() < LABEL_NOISE) ? random.nextInt(classCount) : band % classCount;
+        }
+        return classIndices;
+    }
+
+    static Serializable[] boxed(double[] values) {
+        final Serializable[] boxed = new Serializable[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+
+    static Double[] labels(int[] classIndices) {
+        final Double[] labels = new Double[classIndices.length];
+        for (int i = 0; i < classIndices.length; i++) {
+            labels[i] = (double) classIndices[i];
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,42 @@
+package de.viadee.discretizers4j.benchmarks;
+
+import de.viadee.discretizers4j.AbstractDiscretizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fits the unsupervised discretizers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UnsupervisedFitBenchmark {
+
+    @Param({"PERCENTILE_MEDIAN", "EQUAL_SIZE", "EQUAL_WIDTH", "MANUAL", "UNIQUE_VALUE"})
+    public DiscretizerKind kind;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    @Param({"16", "10000"})
+    public int cardinality;
+
+    private Serializable[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = SyntheticData.boxed(SyntheticData.values(rows, cardinality, 42L));
+    }
+
+    @Benchmark
+    public AbstractDiscretizer fit() {
+        final AbstractDiscretizer discretizer = kind.create(cardinality);
+        discretizer.fit(values);
+        return discretizer;
+    }
+}
@@ -17,7 +17,10 @@ import java.util.stream.Stream;
 public abstract class AbstractDiscretizer implements Discretizer {
     private final boolean isSupervised;
 
-    private List<DiscretizationTransition> discretizationTransitions;
+    private volatile DiscretizationModel model;
+
+    private transient FitRecorder fitRecorder;
+    private transient volatile FitReport fitReport;
 
     /**
      * Constructs the instance
@@ -30,7 +33,21 @@ public abstract class AbstractDiscretizer implements Discretizer {
 
     @Override
     public Collection<DiscretizationTransition> getTransitions() {
-        return discretizationTransitions;
+        final DiscretizationModel fittedModel = model;
+        return (fittedModel == null) ? null : fittedModel.getTransitions();
+    }
+
+    /**
+     * Returns the immutable result of fitting, which may be shared across threads without synchronization
+     *
+     * @return the fitted model
+     */
+    public DiscretizationModel getModel() {
+        final DiscretizationModel fittedModel = model;
+        if (fittedModel == null) {
+            throw new IllegalArgumentException("Discretizer has not been fitted");
+        }
+        return fittedModel;
     }
 
     /**
@@ -57,7 +74,7 @@ public abstract class AbstractDiscretizer implements Discretizer {
             throw new IllegalArgumentException("Labels need to be of same length as column values");
         }
 
-        if (discretizationTransitions != null) {
+        if (isFitted()) {
             throw new IllegalArgumentException("Discretizer has already been fitted");
         }
 
@@ -68,56 +85,214 @@ public abstract class AbstractDiscretizer implements Discretizer {
         values = Arrays.copyOf(values, values.length);
         labels = (labels == null) ? null : Arrays.copyOf(labels, labels.length);
 
+        setDiscretizationTransitions(fitCreateTransitions(values, labels));
+    }
+
+    /**
+     * Fits the discretizer on primitive values, without boxing
+     *
+     * @param values the domain
+     */
+    public void fit(double[] values) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+
+        if (isSupervised) {
+            throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+        }
+
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+
+        setDiscretizationTransitions(fitCreateTransitions(Arrays.copyOf(values, values.length)));
+    }
+
+    /**
+     * Fits the discretizer on pre-aggregated values, e.g. read from a grouped query, without expanding them.
+     * <p>
+     * Results equal those of {@link #fit(double[])} on the column holding each value as often as its count.
+     *
+     * @param values the distinct values of the domain. Values may repeat, their counts add up
+     * @param counts the number of occurrences of each value, not negative
+     */
+    public void fitCounts(double[] values, int[] counts) {
+        if (isSupervised) {
+            throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+        }
+
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+
+        fit(SortedColumn.ofCounts(values, counts));
+    }
+
+    /**
+     * Fits the discretizer on a sample of the domain instead of all values. Whether the sample size suffices can be
+     * checked with {@link SampleStability}.
+     *
+     * @param sample the sample drawn from the domain
+     */
+    public void fit(ColumnSample sample) {
+        if (sample == null) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+
+        fit(sample.getValues());
+    }
+
+    /**
+     * Fits the discretizer on a column sorted beforehand, e.g. to fit several discretizers on the same column while
+     * sorting it only once
+     *
+     * @param column the domain
+     */
+    public void fit(SortedColumn column) {
+        if (column == null) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+
+        if (isSupervised) {
+            throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+        }
 
-        // Means we are unsupervised -> sort values before
-        if (labels == null) {
-            Arrays.sort(values);
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
         }
 
-        this.discretizationTransitions = fitCreateTransitions(values, labels);
+        setDiscretizationTransitions(fitCreateTransitions(column));
+    }
 
-        final long distinctDiscretizedValues = discretizationTransitions.stream()
-                .map(DiscretizationTransition::getDiscretizedValue).distinct().count();
-        if (distinctDiscretizedValues != discretizationTransitions.size()) {
-            this.discretizationTransitions = null;
-            // This could be required for some scenarios.. Not yet, though
-            throw new IllegalArgumentException("Discretization targets are ambiguous");
+    /**
+     * Records a {@link FitReport} of the fit, e.g. to find out where the time of a slow fit goes. Recording only adds a
+     * few clock reads and counter updates per phase.
+     */
+    public void enableFitReport() {
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
         }
+        fitRecorder = new FitRecorder();
+    }
+
+    /**
+     * @return the report of the fit
+     */
+    public FitReport getFitReport() {
+        final FitReport report = fitReport;
+        if (report == null) {
+            throw new IllegalArgumentException("No fit report has been recorded, enable it before fitting");
+        }
+        return report;
+    }
+
+    /**
+     * @return the recorder of the current fit, {@link FitRecorder#DISABLED} unless reporting was enabled
+     */
+    protected final FitRecorder getFitRecorder() {
+        final FitRecorder recorder = fitRecorder;
+        return (recorder == null) ? FitRecorder.DISABLED : recorder;
+    }
 
-        // In case all origins are numeric we need to set open lower and upper boundaries
-        if (!this.discretizationTransitions.isEmpty() && this.discretizationTransitions.stream()
-                .allMatch(d -> d.getDiscretizationOrigin() instanceof NumericDiscretizationOrigin)) {
-            DiscretizationTransition minDisc = this.discretizationTransitions.get(0);
-            DiscretizationTransition maxDisc = this.discretizationTransitions.get(0);
-            for (final DiscretizationTransition current : this.discretizationTransitions) {
-                if (((NumericDiscretizationOrigin) current.getDiscretizationOrigin()).getMinValue().doubleValue() <
-                        ((NumericDiscretizationOrigin) minDisc.getDiscretizationOrigin()).getMinValue().doubleValue())
-                    minDisc = current;
-                if (((NumericDiscretizationOrigin) current.getDiscretizationOrigin()).getMaxValue().doubleValue() >
-                        ((NumericDiscretizationOrigin) maxDisc.getDiscretizationOrigin()).getMaxValue().doubleValue())
-                    maxDisc = current;
-            }
-            ((NumericDiscretizationOrigin) minDisc.getDiscretizationOrigin()).setFirst(true);
-            ((NumericDiscretizationOrigin) maxDisc.getDiscretizationOrigin()).setLast(true);
+    /**
+     * Makes a discretizer this one delegates its fit to record into the report of this one
+     *
+     * @param delegate the discretizer fitted on behalf of this one
+     */
+    protected final void shareFitRecorder(AbstractDiscretizer delegate) {
+        delegate.fitRecorder = fitRecorder;
+    }
+
+    /**
+     * @return true, if the discretizer has already been fitted
+     */
+    protected final boolean isFitted() {
+        return model != null;
+    }
+
+    /**
+     * Compiles the fitted transitions to the {@link DiscretizationModel} and publishes it.
+     * <p>
+     * Used by all fitting procedures once the transitions have been created
+     *
+     * @param transitions the fitted transitions
+     */
+    protected final synchronized void setDiscretizationTransitions(List<DiscretizationTransition> transitions) {
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+        final FitRecorder recorder = getFitRecorder();
+        final long start = recorder.start();
+        this.model = DiscretizationModel.compile(transitions);
+        recorder.phase("compile", start);
+        if (recorder.isEnabled()) {
+            fitReport = recorder.finish();
+            fitRecorder = null;
         }
     }
 
     /**
-     * Fits on the data
+     * Fits on the data.
+     * <p>
+     * Unboxes the numeric values and fits on them. Discretizers of non-numeric or labeled values override this.
      *
-     * @param values the values to be fitted on
+     * @param values the values to be fitted on, in the order passed
      * @param labels the labels. != null, iff supervised
      * @return a {@link Collection} containing the {@link DiscretizationTransition}s
      */
-    protected abstract List<DiscretizationTransition> fitCreateTransitions(Serializable[] values, Double[] labels);
+    protected List<DiscretizationTransition> fitCreateTransitions(Serializable[] values, Double[] labels) {
+        final double[] primitiveValues = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            primitiveValues[i] = ((Number) values[i]).doubleValue();
+        }
+        return fitCreateTransitions(primitiveValues);
+    }
+
+    /**
+     * Fits on the unsorted numeric data.
+     * <p>
+     * Sorts the values in place once and fits on the {@link SortedColumn}, which has no original positions as no labels
+     * need them. Discretizers not depending on the complete order override this.
+     *
+     * @param values the values to be fitted on, a copy that may be reordered
+     * @return a {@link Collection} containing the {@link DiscretizationTransition}s
+     */
+    protected List<DiscretizationTransition> fitCreateTransitions(double[] values) {
+        final FitRecorder recorder = getFitRecorder();
+        final long start = recorder.start();
+        final SortedColumn column = SortedColumn.sortInPlace(values);
+        recorder.phase("sort", start);
+        recorder.scratchBytes(SortedColumn.inPlaceSortScratchBytes(values.length));
+        return fitCreateTransitions(column);
+    }
+
+    /**
+     * Fits on the sorted data
+     *
+     * @param column the sorted values to be fitted on
+     * @return a {@link Collection} containing the {@link DiscretizationTransition}s
+     */
+    protected abstract List<DiscretizationTransition> fitCreateTransitions(SortedColumn column);
 
     @Override
     public Double apply(Serializable serializable) {
-        final DiscretizationTransition discretizationTransition = discretizationTransitions.stream()
-                .filter(d -> d.getDiscretizationOrigin().canDiscretize(serializable))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Could not find transition for " + serializable));
-        return discretizationTransition.getDiscretizedValue();
+        return getModel().apply(serializable);
+    }
+
+    @Override
+    public DiscretizationTransition getTransition(Double discretizedValue) {
+        return getModel().getTransition(discretizedValue);
+    }
+
+    @Override
+    public void apply(double[] data, double[] discretizedData) {
+        getModel().apply(data, discretizedData);
+    }
+
+    @Override
+    public int[] applyToIndex(double[] data) {
+        return getModel().applyToIndex(data);
     }
 
     protected final List<DiscretizationTransition> getDiscretizationTransitionsFromCutPoints(List<Double> actualCutPoints, Double min, Double max) {
@@ -0,0 +1,89 @@
+package de.viadee.discretizers4j;
+
+import java.io.Serializable;
+
+/**
+ * Abstract {@link StreamingFitter} validating chunks and passing their values one by one to a summary
+ *
+ * @param <D> type of the fitted discretizer
+ */
+public abstract class AbstractStreamingFitter<D extends Discretizer> implements StreamingFitter<D> {
+    private final boolean isSupervised;
+    private boolean finished;
+
+    /**
+     * Constructs the instance
+     *
+     * @param isSupervised true, if labels are required. Unsupervised fitters ignore labels
+     */
+    protected AbstractStreamingFitter(boolean isSupervised) {
+        this.isSupervised = isSupervised;
+    }
+
+    @Override
+    public final void feed(double[] values, Double[] labels) {
+        checkChunk(values.length, labels);
+        for (int i = 0; i < values.length; i++) {
+            feedValue(values[i], isSupervised ? labels[i] : null);
+        }
+    }
+
+    @Override
+    public final void feed(Serializable[] values, Double[] labels) {
+        checkChunk(values.length, labels);
+        for (int i = 0; i < values.length; i++) {
+            feedValue(values[i], isSupervised ? labels[i] : null);
+        }
+    }
+
+    @Override
+    public final D finish() {
+        if (finished) {
+            throw new IllegalArgumentException("Fitter has already finished");
+        }
+        finished = true;
+        return fitSummary();
+    }
+
+    private void checkChunk(int length, Double[] labels) {
+        if (finished) {
+            throw new IllegalArgumentException("Fitter has already finished");
+        }
+
+        if (isSupervised && labels == null) {
+            throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+        }
+
+        if (isSupervised && labels.length != length) {
+            throw new IllegalArgumentException("Labels need to be of same length as column values");
+        }
+    }
+
+    /**
+     * Adds a value to the summary
+     *
+     * @param value the value
+     * @param label its label or null, iff unsupervised
+     */
+    protected abstract void feedValue(double value, Double label);
+
+    /**
+     * Adds a value to the summary. Accepts numbers only, unless overridden
+     *
+     * @param value the value
+     * @param label its label or null, iff unsupervised
+     */
+    protected void feedValue(Serializable value, Double label) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Non-Numeric values can only be discretized with UniqueValue");
+        }
+        feedValue(((Number) value).doubleValue(), label);
+    }
+
+    /**
+     * Fits the discretizer on the summary of all values fed
+     *
+     * @return the fitted discretizer
+     */
+    protected abstract D fitSummary();
+}
@@ -1,9 +1,14 @@
 package de.viadee.discretizers4j;
 
 import java.io.Serializable;
-import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public abstract class AbstractSupervisedDiscretizer extends AbstractDiscretizer {
 
@@ -17,61 +22,569 @@ public abstract class AbstractSupervisedDiscretizer extends AbstractDiscretizer
     }
 
     /**
-     * generates initial Intervals. Values with same class are merged to a Interval. If a value has several classes, all index with
-     * this value will be a separate Interval.
+     * Fits the discretizer on primitive values and their class indices, without boxing.
+     * <p>
+     * Results equal those of {@link #fit(Serializable[], Double[])} with the class indices passed as labels.
      *
-     * @param keyValuePairs, Array of Attribute Class.
-     * @return initial List of Intervals
+     * @param values       the domain
+     * @param classIndices the class index of each value
      */
-    protected List<Interval> equalClassSplit(final List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs) {
-        final List<Interval> resultDiscTrans = new ArrayList<>();
-        int lowerLimit = 0;
-        int amountSameValue = 0;
-        for (int i = 1; i < keyValuePairs.size(); i++) {
-            final Number currentKey = keyValuePairs.get(i).getKey();
-            final Double currentValue = keyValuePairs.get(i).getValue();
-
-            if (!currentKey.equals(keyValuePairs.get(i - 1).getKey())) {
-                amountSameValue = 0;
-                if (!currentValue.equals(keyValuePairs.get(i - 1).getValue())) {
-                    resultDiscTrans.add(new Interval(lowerLimit, i - 1, keyValuePairs));
-                    lowerLimit = i;
+    public void fit(double[] values, int[] classIndices) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+
+        if (classIndices == null) {
+            throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+        }
+
+        if (classIndices.length != values.length) {
+            throw new IllegalArgumentException("Labels need to be of same length as column values");
+        }
+
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+
+        setDiscretizationTransitions(fitColumn(() -> SupervisedColumn.of(values, classIndices), values.length));
+    }
+
+    /**
+     * Fits the discretizer on class indices already mapped to 0..classCount-1, so labels shared by several columns are
+     * only encoded once
+     *
+     * @param values       the domain
+     * @param classIndices the class index of each value, in 0..classCount-1
+     * @param classCount   the number of classes
+     */
+    void fitEncoded(double[] values, int[] classIndices, int classCount) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+
+        if (classIndices.length != values.length) {
+            throw new IllegalArgumentException("Labels need to be of same length as column values");
+        }
+
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+
+        setDiscretizationTransitions(fitColumn(
+                () -> SupervisedColumn.ofEncoded(SortedColumn.withOriginalIndices(values), classIndices, classCount), values.length));
+    }
+
+    /**
+     * Fits the discretizer on pre-aggregated records, e.g. read from a grouped query, without expanding them. The
+     * class distributions of all intervals are counted from the records' counts.
+     * <p>
+     * Results equal those of {@link #fit(double[], int[])} on the columns holding each record as often as its count.
+     *
+     * @param values       the value of each record. Records may repeat a value and class, their counts add up
+     * @param classIndices the class index of each record
+     * @param counts       the number of values each record stands for, not negative
+     */
+    public void fitCounts(double[] values, int[] classIndices, int[] counts) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+
+        if (classIndices == null) {
+            throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+        }
+
+        if (classIndices.length != values.length) {
+            throw new IllegalArgumentException("Labels need to be of same length as column values");
+        }
+
+        if (counts == null || counts.length != values.length) {
+            throw new IllegalArgumentException("Counts need to be of same length as column values");
+        }
+
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+
+        setDiscretizationTransitions(fitColumn(() -> SupervisedColumn.ofCounts(values, classIndices, counts),
+                values.length));
+    }
+
+    /**
+     * Fits the discretizer on a column sorted beforehand, e.g. to fit several discretizers on the same column while
+     * sorting it only once
+     *
+     * @param column       the domain
+     * @param classIndices the class index of each value, in the order the values were passed to the sorted column
+     */
+    public void fit(SortedColumn column, int[] classIndices) {
+        if (column == null) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+
+        if (classIndices == null) {
+            throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+        }
+
+        if (classIndices.length != column.size()) {
+            throw new IllegalArgumentException("Labels need to be of same length as column values");
+        }
+
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+
+        setDiscretizationTransitions(fitColumn(() -> SupervisedColumn.of(column, classIndices), 0));
+    }
+
+    /**
+     * Fits the discretizer on a stratified sample of the domain and its classes, see
+     * {@link ColumnSample#stratified(double[], int[], int, long)}
+     *
+     * @param sample the sample drawn from the domain, holding class indices
+     */
+    @Override
+    public void fit(ColumnSample sample) {
+        if (sample == null) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+
+        if (!sample.isLabeled()) {
+            throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+        }
+
+        fit(sample.getValues(), sample.getClassIndices());
+    }
+
+    /**
+     * Fits the discretizer approximately on a column summarized by micro-bins, only considering the bin boundaries as
+     * cut points. How far cut points may be off is reported by {@link BinnedColumn#getRankErrorBound()}.
+     *
+     * @param column the binned domain and its classes
+     */
+    public void fit(BinnedColumn column) {
+        if (column == null) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+
+        setDiscretizationTransitions(fitColumn(column::getColumn, 0));
+    }
+
+    /**
+     * Opens a fitter summarizing the chunks fed by the class counts of each distinct value, so memory depends on the
+     * number of distinct values and classes rather than on the number of values.
+     * <p>
+     * The summary is exact and not bounded: each distinct value takes about 16 bytes plus 4 bytes per class. Use
+     * {@link #streamingFitter(int)} to bound it on columns of many distinct values.
+     * <p>
+     * Supervised discretizers fit on exactly these counts, so results equal those of
+     * {@link #fit(Serializable[], Double[])} on all values fed.
+     *
+     * @return the fitter of this discretizer
+     */
+    public StreamingFitter<AbstractSupervisedDiscretizer> streamingFitter() {
+        return streamingFitter(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Opens a fitter summarizing the chunks fed by the class counts of at most maxDistinctValues distinct values.
+     * <p>
+     * Once more distinct values have been fed, they are merged into at most maxDistinctValues / 2 equal-frequency bins
+     * as in {@link BinnedColumn}. Later values within the range of the bins are counted in their bin, all others as
+     * distinct values again until the next merge. Memory is thus bounded by about 40 bytes plus 10 bytes per class for
+     * each of maxDistinctValues values.
+     * <p>
+     * Results equal those of {@link #streamingFitter()} as long as no more than maxDistinctValues distinct values have
+     * been fed. Beyond, cut points are placed on bin boundaries only, so a cut point of an exact fit lying within a bin
+     * is approximated by one of its boundaries.
+     *
+     * @param maxDistinctValues the number of distinct values counted exactly, at least 2
+     * @return the fitter of this discretizer
+     */
+    public StreamingFitter<AbstractSupervisedDiscretizer> streamingFitter(int maxDistinctValues) {
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+        if (maxDistinctValues < 2) {
+            throw new IllegalArgumentException("At least 2 distinct values need to be counted, not " + maxDistinctValues);
+        }
+        return new ClassCountFitter(maxDistinctValues);
+    }
+
+    /**
+     * Streaming fitter counting the classes per distinct value
+     */
+    private final class ClassCountFitter extends AbstractStreamingFitter<AbstractSupervisedDiscretizer> {
+        private final Map<Double, Integer> labelIndices = new HashMap<>();
+        private final ValueClassCounts classCounts;
+        private long count;
+        private Double lastLabel;
+        private int lastLabelIndex;
+
+        private ClassCountFitter(int maxDistinctValues) {
+            super(true);
+            classCounts = new ValueClassCounts(maxDistinctValues);
+        }
+
+        @Override
+        protected void feedValue(double value, Double label) {
+            if (label == null) {
+                throw new IllegalArgumentException("Labels must not be null");
+            }
+            // Labels usually repeat within a chunk, so the last one is looked up without boxing or hashing
+            if (!label.equals(lastLabel)) {
+                lastLabel = label;
+                lastLabelIndex = labelIndices.computeIfAbsent(label, l -> labelIndices.size());
+            }
+            classCounts.increment(value, lastLabelIndex);
+            count++;
+        }
+
+        @Override
+        protected AbstractSupervisedDiscretizer fitSummary() {
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many values to fit on, " + count);
+            }
+
+            // Order classes as their labels
+            final Double[] labels = labelIndices.keySet().toArray(new Double[0]);
+            Arrays.sort(labels);
+            final int[] labelOfClassIndex = new int[labels.length];
+            for (int classIndex = 0; classIndex < labels.length; classIndex++) {
+                labelOfClassIndex[classIndex] = labelIndices.get(labels[classIndex]);
+            }
+
+            getFitRecorder().scratchBytes(classCounts.estimateBytes());
+            final SupervisedColumn column = classCounts.toColumn(labelOfClassIndex);
+            if (isFitted()) {
+                throw new IllegalArgumentException("Discretizer has already been fitted");
+            }
+            setDiscretizationTransitions(fitColumn(() -> column, 0));
+            return AbstractSupervisedDiscretizer.this;
+        }
+    }
+
+    /**
+     * Class counts per distinct value, in primitive arrays.
+     * <p>
+     * Distinct values are kept in the order they were first seen, their counts in one flat array with a row of
+     * classCapacity counts each. An open addressing hash table maps the bits of a value to its entry. Values are
+     * distinguished like {@link Double#equals(Object)} does.
+     * <p>
+     * Beyond maxDistinctValues distinct values, the entries are merged into bins of consecutive values, whose counts are
+     * kept in the same layout. The bins are disjoint and cover the values from their first lower bound up to
+     * binnedMaxValue, so distinct values fed later lie either within one bin or outside of all of them.
+     */
+    private static final class ValueClassCounts {
+        private final int maxDistinctValues;
+        private double[] values = new double[16];
+        private int[] counts = new int[16];
+        private int classCapacity = 1;
+        private int size;
+        /** Entry + 1 per slot, 0 for free slots */
+        private int[] table = new int[32];
+        private double[] binLowerBounds = new double[0];
+        private int[] binCounts = new int[0];
+        private double binnedMaxValue;
+
+        private ValueClassCounts(int maxDistinctValues) {
+            this.maxDistinctValues = maxDistinctValues;
+        }
+
+        private void increment(double value, int classIndex) {
+            if (classIndex >= classCapacity) {
+                growClasses(Math.max(2 * classCapacity, classIndex + 1));
+            }
+            if (binLowerBounds.length > 0 && Double.compare(value, binLowerBounds[0]) >= 0
+                    && Double.compare(value, binnedMaxValue) <= 0) {
+                final int bin = Arrays.binarySearch(binLowerBounds, value);
+                binCounts[(bin < 0 ? -bin - 2 : bin) * classCapacity + classIndex]++;
+                return;
+            }
+
+            int slot = slotOf(value);
+            if (table[slot] == 0) {
+                if (2 * (size + 1) > table.length) {
+                    growTable();
+                    slot = slotOf(value);
+                }
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, 2 * size);
+                    counts = Arrays.copyOf(counts, 2 * size * classCapacity);
+                }
+                values[size] = value;
+                table[slot] = ++size;
+            }
+            counts[(table[slot] - 1) * classCapacity + classIndex]++;
+            if (size > maxDistinctValues) {
+                mergeIntoBins(maxDistinctValues / 2);
+            }
+        }
+
+        /**
+         * Merges the bins and distinct values into at most maxBins bins of about equal size. Each bin or distinct value
+         * is kept whole, so merging into as many bins as there are loses nothing.
+         */
+        private void mergeIntoBins(int maxBins) {
+            final double[] distinctValues = Arrays.copyOf(values, size);
+            Arrays.sort(distinctValues);
+            long total = 0;
+            for (int i = 0; i < size * classCapacity; i++) {
+                total += counts[i];
+            }
+            for (int binCount : binCounts) {
+                total += binCount;
+            }
+
+            final double[] lowerBounds = new double[Math.min(maxBins, binLowerBounds.length + size)];
+            final int[] mergedCounts = new int[lowerBounds.length * classCapacity];
+            int bins = 0;
+            long merged = 0;
+            int bin = 0;
+            int distinct = 0;
+            // Distinct values lie outside of the bins, so both are merged in ascending order
+            while (bin < binLowerBounds.length || distinct < size) {
+                final boolean isBin = distinct == size || (bin < binLowerBounds.length
+                        && Double.compare(binLowerBounds[bin], distinctValues[distinct]) < 0);
+                final double lowerBound = isBin ? binLowerBounds[bin] : distinctValues[distinct];
+                final int[] source = isBin ? binCounts : counts;
+                final int offset = (isBin ? bin++ : entryOf(distinctValues[distinct++])) * classCapacity;
+                if (bins == 0 || merged * maxBins >= (long) bins * total) {
+                    lowerBounds[bins++] = lowerBound;
+                }
+                for (int classIndex = 0; classIndex < classCapacity; classIndex++) {
+                    mergedCounts[(bins - 1) * classCapacity + classIndex] += source[offset + classIndex];
+                    merged += source[offset + classIndex];
+                }
+            }
+
+            if (size > 0 && (binLowerBounds.length == 0
+                    || Double.compare(distinctValues[size - 1], binnedMaxValue) > 0)) {
+                binnedMaxValue = distinctValues[size - 1];
+            }
+            binLowerBounds = Arrays.copyOf(lowerBounds, bins);
+            binCounts = Arrays.copyOf(mergedCounts, bins * classCapacity);
+            size = 0;
+            Arrays.fill(table, 0);
+            Arrays.fill(counts, 0);
+        }
+
+        /**
+         * @return the slot holding the value or the free slot to insert it at
+         */
+        private int slotOf(double value) {
+            final long bits = Double.doubleToLongBits(value);
+            final int mask = table.length - 1;
+            // Values often differ in their high bits only, which the multiplication spreads to the upper half
+            final long hash = bits * 0x9E3779B97F4A7C15L;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (table[slot] != 0 && Double.doubleToLongBits(values[table[slot] - 1]) != bits) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void growTable() {
+            final int[] entries = table;
+            table = new int[2 * entries.length];
+            for (int entry : entries) {
+                if (entry != 0) {
+                    table[slotOf(values[entry - 1])] = entry;
                 }
-            } else {
-                amountSameValue++;
-                if (!currentValue.equals(keyValuePairs.get(i - amountSameValue).getValue())) {
-                    if (!resultDiscTrans.isEmpty() && resultDiscTrans.get(resultDiscTrans.size() - 1).getEnd() != i - amountSameValue - 1) {
-                        resultDiscTrans.add(new Interval(lowerLimit, i - 1 - amountSameValue, keyValuePairs));
-                    }
-
-                    if (i != keyValuePairs.size() - 1 && !keyValuePairs.get(i + 1).getKey().equals(keyValuePairs.get(i).getKey())) {
-                        lowerLimit = i - amountSameValue;
-                        resultDiscTrans.add(new Interval(lowerLimit, i, keyValuePairs));
-                        lowerLimit = i;
-                        amountSameValue = 0;
-                    }
+            }
+        }
+
+        private void growClasses(int capacity) {
+            final int[] grown = new int[values.length * capacity];
+            for (int entry = 0; entry < size; entry++) {
+                System.arraycopy(counts, entry * classCapacity, grown, entry * capacity, classCapacity);
+            }
+            counts = grown;
+            final int[] grownBins = new int[binLowerBounds.length * capacity];
+            for (int bin = 0; bin < binLowerBounds.length; bin++) {
+                System.arraycopy(binCounts, bin * classCapacity, grownBins, bin * capacity, classCapacity);
+            }
+            binCounts = grownBins;
+            classCapacity = capacity;
+        }
+
+        private int entryOf(double value) {
+            return table[slotOf(value)] - 1;
+        }
+
+        private long estimateBytes() {
+            return 8L * values.length + 4L * counts.length + 4L * table.length + 8L * binLowerBounds.length
+                    + 4L * binCounts.length;
+        }
+
+        /**
+         * Creates the column of the counts, as runs of the distinct values or, once merged, as bins
+         *
+         * @param labelOfClassIndex the entry in the rows of counts of each class index
+         * @return the column
+         */
+        private SupervisedColumn toColumn(int[] labelOfClassIndex) {
+            final boolean isBinned = binLowerBounds.length > 0;
+            if (isBinned) {
+                mergeIntoBins(Integer.MAX_VALUE);
+            }
+            final double[] runValues = isBinned ? binLowerBounds : Arrays.copyOf(values, size);
+            final int[] source = isBinned ? binCounts : counts;
+            Arrays.sort(runValues);
+
+            final int classCount = labelOfClassIndex.length;
+            if ((long) runValues.length * classCount > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many distinct values to fit on, " + runValues.length);
+            }
+            final int[] runClassCounts = new int[runValues.length * classCount];
+            for (int run = 0; run < runValues.length; run++) {
+                final int row = isBinned ? run : entryOf(runValues[run]);
+                for (int classIndex = 0; classIndex < classCount; classIndex++) {
+                    runClassCounts[run * classCount + classIndex] =
+                            source[row * classCapacity + labelOfClassIndex[classIndex]];
                 }
             }
+            return isBinned ? SupervisedColumn.ofBins(runValues, runClassCounts, classCount, binnedMaxValue)
+                    : SupervisedColumn.ofRuns(runValues, runClassCounts, classCount);
+        }
+    }
+
+    /**
+     * generates initial Intervals. Neighbouring values of one and the same class are merged to a Interval. If a value
+     * has several classes, all values equal to it will be a separate Interval.
+     *
+     * @param column the sorted runs and their classes
+     * @return initial List of Intervals, each covering one or more runs
+     */
+    protected List<Interval> equalClassSplit(final SupervisedColumn column) {
+        final FitRecorder recorder = getFitRecorder();
+        final long start = recorder.start();
+        final ClassHistogram histogram = column.getClassHistogram();
+        final List<Interval> resultDiscTrans = new ArrayList<>();
+        int lowerLimit = 0;
+        int previousClass = singleClassOf(histogram, 0);
+        for (int run = 1; run < column.getRunCount(); run++) {
+            final int currentClass = singleClassOf(histogram, run);
+            if (currentClass < 0 || currentClass != previousClass) {
+                resultDiscTrans.add(Interval.of(lowerLimit, run - 1, histogram));
+                lowerLimit = run;
+            }
+            previousClass = currentClass;
         }
-        resultDiscTrans.add(new Interval(lowerLimit, keyValuePairs.size() - 1, keyValuePairs));
+        resultDiscTrans.add(Interval.of(lowerLimit, column.getRunCount() - 1, histogram));
+        recorder.phase("equalClassSplit", start);
+        recorder.intervalsBuilt(resultDiscTrans.size());
 
         return resultDiscTrans;
     }
 
+    /**
+     * generates initial Intervals of values sorted beforehand. Neighbouring values of one and the same class are
+     * merged to a Interval. If a value has several classes, all values equal to it will be a separate Interval.
+     *
+     * @param keyValuePairs the values and labels, sorted by value
+     * @return initial List of Intervals, referring to positions in the list
+     * @deprecated boxes every value, use {@link #equalClassSplit(SupervisedColumn)}
+     */
+    @Deprecated
+    protected List<Interval> equalClassSplit(final List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs) {
+        final double[] values = new double[keyValuePairs.size()];
+        final Double[] labels = new Double[keyValuePairs.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = keyValuePairs.get(i).getKey();
+            labels[i] = keyValuePairs.get(i).getValue();
+        }
+        final SupervisedColumn column = SupervisedColumn.of(values, labels);
+
+        final List<Interval> intervals = new ArrayList<>();
+        int begin = 0;
+        for (Interval runs : equalClassSplit(column)) {
+            intervals.add(Interval.ofPositions(begin, begin + runs.getSize() - 1, runs));
+            begin += runs.getSize();
+        }
+        return intervals;
+    }
+
+    /**
+     * @return the class of all values of the run or -1, if it has several classes
+     */
+    private static int singleClassOf(ClassHistogram histogram, int run) {
+        final int runSize = histogram.size(run, run);
+        for (int c = 0; c < histogram.getClassCount(); c++) {
+            final int count = histogram.count(run, run, c);
+            if (count == runSize) {
+                return c;
+            }
+            if (count > 0) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
     @Override
     protected final List<DiscretizationTransition> fitCreateTransitions(Serializable[] values, Double[] labels) {
-        final List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs = IntStream.range(0, values.length)
-                .mapToObj(i -> new AbstractMap.SimpleImmutableEntry<>(((Number) values[i]).doubleValue(), labels[i]))
-                .sorted(Comparator.comparing(AbstractMap.SimpleImmutableEntry::getKey))
-                .collect(Collectors.toList());
+        final double[] primitiveValues = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            primitiveValues[i] = ((Number) values[i]).doubleValue();
+        }
+        return fitColumn(() -> SupervisedColumn.of(primitiveValues, labels), values.length);
+    }
+
+    /**
+     * Builds the column in the recorded phase "column" and fits on it
+     *
+     * @param columnBuilder builds the column
+     * @param sortedValues  the number of values sorted while building it
+     * @return the transitions
+     */
+    private List<DiscretizationTransition> fitColumn(Supplier<SupervisedColumn> columnBuilder, int sortedValues) {
+        final FitRecorder recorder = getFitRecorder();
+        final long start = recorder.start();
+        final SupervisedColumn column = columnBuilder.get();
+        recorder.phase("column", start);
+        recorder.scratchBytes(SortedColumn.sortScratchBytes(sortedValues) + column.estimateBytes());
+        return fitCreateTransitions(column);
+    }
+
+    @Override
+    protected final List<DiscretizationTransition> fitCreateTransitions(SortedColumn column) {
+        throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+    }
+
+    /**
+     * Fits on the data. Discretizers override this, the default delegates to the deprecated
+     * {@link #fitCreateTransitions(List)} for discretizers written against it.
+     *
+     * @param column the sorted values and their classes to be fitted
+     * @return a {@link Collection} containing the {@link DiscretizationTransition}s
+     */
+    protected List<DiscretizationTransition> fitCreateTransitions(SupervisedColumn column) {
+        final ClassHistogram histogram = column.getClassHistogram();
+        final List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs = new ArrayList<>(column.size());
+        for (int run = 0; run < column.getRunCount(); run++) {
+            for (int c = 0; c < column.getClassCount(); c++) {
+                for (int i = histogram.count(run, run, c); i > 0; i--) {
+                    keyValuePairs.add(new AbstractMap.SimpleImmutableEntry<>(column.getRunValue(run), (double) c));
+                }
+            }
+        }
         return fitCreateTransitions(keyValuePairs);
     }
 
     /**
      * Fits on the data
      *
-     * @param keyValuePairs the values and labels to be fitted
+     * @param keyValuePairs the values and labels to be fitted, sorted by value. Labels are the class indices
      * @return a {@link Collection} containing the {@link DiscretizationTransition}s
+     * @deprecated boxes every value, override {@link #fitCreateTransitions(SupervisedColumn)} instead
      */
-    protected abstract List<DiscretizationTransition> fitCreateTransitions(List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs);
+    @Deprecated
+    protected List<DiscretizationTransition> fitCreateTransitions(
+            List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs) {
+        throw new IllegalArgumentException(getClass().getName() + " needs to override fitCreateTransitions");
+    }
 }
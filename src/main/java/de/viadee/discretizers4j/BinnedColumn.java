@@ -0,0 +1,260 @@
+package de.viadee.discretizers4j;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Labeled column summarized by equal-frequency micro-bins and their class counts, to fit supervised discretizers
+ * approximately without sorting all values.
+ * <p>
+ * Bin boundaries are read from a random sample of 64 values per bin, drawn with a fixed seed so results are
+ * reproducible. The class counts of the bins are then determined exactly in a single parallel pass over the column.
+ * Supervised discretizers fitted on the column only consider the bin boundaries as cut points, so their cost depends
+ * on the number of bins rather than on the number of values. Equal values always fall into the same bin, so the bins
+ * never split them.
+ * <p>
+ * Any cut point of an exact fit lies within one of the bins, so it is at most {@link #getRankErrorBound()} values
+ * away from a boundary evaluated here. The bound is measured from the counted bins, not estimated from the sample. As
+ * the discretizers choose their cut points greedily, later cut points of both fits may differ further.
+ */
+public final class BinnedColumn {
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+    private static final int SAMPLES_PER_BIN = 64;
+    private static final long SAMPLE_SEED = 5087215457294870329L;
+
+    private final SupervisedColumn column;
+    private final int largestBinSize;
+
+    private BinnedColumn(SupervisedColumn column) {
+        this.column = column;
+        final ClassHistogram histogram = column.getClassHistogram();
+        int largest = 0;
+        for (int bin = 0; bin < column.getRunCount(); bin++) {
+            largest = Math.max(largest, histogram.size(bin, bin));
+        }
+        this.largestBinSize = largest;
+    }
+
+    /**
+     * Bins a column on the common {@link ForkJoinPool}
+     *
+     * @param values       the values, left untouched, must not be NaN
+     * @param classIndices the class index of each value
+     * @param binCount     the number of bins aimed at, at least 1. Fewer are created if values repeat
+     * @return the binned column
+     */
+    public static BinnedColumn of(double[] values, int[] classIndices, int binCount) {
+        return of(values, classIndices, binCount, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Bins a column
+     *
+     * @param values       the values, left untouched, must not be NaN
+     * @param classIndices the class index of each value
+     * @param binCount     the number of bins aimed at, at least 1. Fewer are created if values repeat
+     * @param pool         the pool to count chunks of the column on
+     * @return the binned column
+     */
+    public static BinnedColumn of(double[] values, int[] classIndices, int binCount, ForkJoinPool pool) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+        if (classIndices == null) {
+            throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+        }
+        if (classIndices.length != values.length) {
+            throw new IllegalArgumentException("Labels need to be of same length as column values");
+        }
+        if (binCount < 1) {
+            throw new IllegalArgumentException("At least one bin needs to be created");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Fork join pool must not be null");
+        }
+
+        final int[] distinctClassIndices = SupervisedColumn.distinctClassIndices(classIndices);
+        final int classCount = distinctClassIndices.length;
+        if ((long) binCount * classCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many bins to build a class histogram with " + classCount
+                    + " classes");
+        }
+
+        final double[] boundaries = determineBoundaries(values, binCount);
+        final BinCounts binCounts = pool.invoke(new CountTask(values, classIndices, distinctClassIndices,
+                boundaries, 0, values.length));
+
+        // Bins the sample left empty are merged into their lower neighbour
+        final double[] lowerBounds = new double[boundaries.length + 1];
+        final int[] counts = new int[binCounts.classCounts.length];
+        int bins = 0;
+        for (int bin = 0; bin <= boundaries.length; bin++) {
+            int binSize = 0;
+            for (int c = 0; c < classCount; c++) {
+                binSize += binCounts.classCounts[bin * classCount + c];
+            }
+            if (binSize > 0) {
+                lowerBounds[bins] = (bins == 0) ? binCounts.minValue : boundaries[bin - 1];
+                System.arraycopy(binCounts.classCounts, bin * classCount, counts, bins * classCount, classCount);
+                bins++;
+            }
+        }
+
+        return new BinnedColumn(SupervisedColumn.ofBins(Arrays.copyOf(lowerBounds, bins),
+                Arrays.copyOf(counts, bins * classCount), classCount, binCounts.maxValue));
+    }
+
+    /**
+     * Draws the sample and reads the values at equally spaced ranks of it
+     *
+     * @return the distinct boundaries, ascending
+     */
+    private static double[] determineBoundaries(double[] values, int binCount) {
+        final double[] sample;
+        if ((long) SAMPLES_PER_BIN * binCount >= values.length) {
+            sample = Arrays.copyOf(values, values.length);
+        } else {
+            final Random random = new Random(SAMPLE_SEED);
+            sample = new double[SAMPLES_PER_BIN * binCount];
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = values[random.nextInt(values.length)];
+            }
+        }
+        Arrays.sort(sample);
+
+        final double[] boundaries = new double[binCount - 1];
+        int distinct = 0;
+        for (int i = 1; i < binCount; i++) {
+            final double boundary = sample[(int) ((long) i * sample.length / binCount)];
+            if (boundary > sample[0] && (distinct == 0 || boundary > boundaries[distinct - 1])) {
+                boundaries[distinct++] = boundary;
+            }
+        }
+        return Arrays.copyOf(boundaries, distinct);
+    }
+
+    /**
+     * @return the number of bins holding at least one value
+     */
+    public int getBinCount() {
+        return column.getRunCount();
+    }
+
+    /**
+     * @return the number of values in the largest bin
+     */
+    public int getLargestBinSize() {
+        return largestBinSize;
+    }
+
+    /**
+     * @return the maximum number of values between a cut point of an exact fit and the nearest bin boundary
+     */
+    public long getRankErrorBound() {
+        return largestBinSize;
+    }
+
+    /**
+     * @return the rank error bound relative to the number of values
+     */
+    public double getNormalizedRankErrorBound() {
+        return largestBinSize / (double) column.size();
+    }
+
+    /**
+     * @return the bins as runs of a supervised column
+     */
+    SupervisedColumn getColumn() {
+        return column;
+    }
+
+    /**
+     * Class counts per bin and extremes of a range of the column
+     */
+    private static final class BinCounts {
+        private final int[] classCounts;
+        private double minValue = Double.POSITIVE_INFINITY;
+        private double maxValue = Double.NEGATIVE_INFINITY;
+
+        private BinCounts(int size) {
+            this.classCounts = new int[size];
+        }
+    }
+
+    /**
+     * Counts a range of the column, adding up the counts of both halves of large ranges
+     */
+    private static final class CountTask extends RecursiveTask<BinCounts> {
+        private static final long serialVersionUID = 6301836920473725214L;
+
+        private final transient double[] values;
+        private final transient int[] classIndices;
+        private final transient int[] distinctClassIndices;
+        private final transient double[] boundaries;
+        private final int begin;
+        private final int end;
+
+        private CountTask(double[] values, int[] classIndices, int[] distinctClassIndices, double[] boundaries,
+                          int begin, int end) {
+            this.values = values;
+            this.classIndices = classIndices;
+            this.distinctClassIndices = distinctClassIndices;
+            this.boundaries = boundaries;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        protected BinCounts compute() {
+            if (end - begin <= SEQUENTIAL_THRESHOLD) {
+                final int classCount = distinctClassIndices.length;
+                final BinCounts counts = new BinCounts((boundaries.length + 1) * classCount);
+                for (int i = begin; i < end; i++) {
+                    final double value = values[i];
+                    if (Double.isNaN(value)) {
+                        throw new IllegalArgumentException("NaN values cannot be binned");
+                    }
+                    counts.minValue = Math.min(counts.minValue, value);
+                    counts.maxValue = Math.max(counts.maxValue, value);
+                    final int classIndex = (classCount == 1) ? 0
+                            : Arrays.binarySearch(distinctClassIndices, classIndices[i]);
+                    counts.classCounts[binOf(value) * classCount + classIndex]++;
+                }
+                return counts;
+            }
+            final int middle = (begin + end) >>> 1;
+            final CountTask left = new CountTask(values, classIndices, distinctClassIndices, boundaries, begin, middle);
+            left.fork();
+            final BinCounts counts = new CountTask(values, classIndices, distinctClassIndices, boundaries, middle, end)
+                    .compute();
+            final BinCounts leftCounts = left.join();
+            for (int i = 0; i < counts.classCounts.length; i++) {
+                counts.classCounts[i] += leftCounts.classCounts[i];
+            }
+            counts.minValue = Math.min(counts.minValue, leftCounts.minValue);
+            counts.maxValue = Math.max(counts.maxValue, leftCounts.maxValue);
+            return counts;
+        }
+
+        /**
+         * Halves the range without branching on the comparisons, which are unpredictable for unsorted columns
+         *
+         * @return the number of boundaries not above the value
+         */
+        private int binOf(double value) {
+            if (boundaries.length == 0) {
+                return 0;
+            }
+            int base = 0;
+            int length = boundaries.length;
+            while (length > 1) {
+                final int half = length >>> 1;
+                base = (boundaries[base + half] <= value) ? base + half : base;
+                length -= half;
+            }
+            return (boundaries[base] <= value) ? base + 1 : base;
+        }
+    }
+}
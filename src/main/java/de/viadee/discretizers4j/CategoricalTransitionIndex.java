@@ -0,0 +1,51 @@
+package de.viadee.discretizers4j;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled form of a list of categorical {@link DiscretizationTransition}s, answering lookups by hashing.
+ * <p>
+ * Each original value is mapped to the first transition whose {@link CategoricalDiscretizationOrigin} holds it, so
+ * results are identical to querying the origins one after the other.
+ */
+final class CategoricalTransitionIndex {
+    private static final int NO_TRANSITION = -1;
+
+    private final Map<Serializable, Integer> transitionIndices;
+
+    private CategoricalTransitionIndex(Map<Serializable, Integer> transitionIndices) {
+        this.transitionIndices = transitionIndices;
+    }
+
+    /**
+     * Compiles the transitions
+     *
+     * @param transitions the fitted transitions, in lookup order
+     * @return the compiled index or null, if not all origins are categorical
+     */
+    static CategoricalTransitionIndex compile(List<DiscretizationTransition> transitions) {
+        final Map<Serializable, Integer> transitionIndices = new HashMap<>();
+        for (int i = 0; i < transitions.size(); i++) {
+            final DiscretizationOrigin origin = transitions.get(i).getDiscretizationOrigin();
+            if (!(origin instanceof CategoricalDiscretizationOrigin)) {
+                return null;
+            }
+            transitionIndices.putIfAbsent(((CategoricalDiscretizationOrigin) origin).getValue(), i);
+        }
+        return new CategoricalTransitionIndex(transitionIndices);
+    }
+
+    /**
+     * Looks up the transition a value belongs to
+     *
+     * @param value the value to be discretized
+     * @return the index of the matching transition or a negative value, if there is none
+     */
+    int transitionIndexOf(Serializable value) {
+        final Integer transitionIndex = transitionIndices.get(value);
+        return (transitionIndex == null) ? NO_TRANSITION : transitionIndex;
+    }
+}
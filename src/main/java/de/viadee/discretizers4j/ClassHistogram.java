@@ -0,0 +1,110 @@
+package de.viadee.discretizers4j;
+
+import java.util.Arrays;
+
+/**
+ * Cumulative class counts of a {@link SupervisedColumn}.
+ * <p>
+ * Holds one prefix of m class counts per run of equal values, so the class distribution of any range of runs is the
+ * difference of two prefixes and can be determined in O(m), independent of the number of values in the runs.
+ */
+public final class ClassHistogram {
+    private final int classCount;
+    private final int[] cumulativeCounts;
+    private final int[] cumulativeSizes;
+
+    /**
+     * Builds the histogram in a single pass over the runs
+     *
+     * @param runClassCounts the number of values per class of each run, m consecutive counts per run
+     * @param runCount       the number of runs
+     * @param classCount     the number of classes m
+     */
+    ClassHistogram(int[] runClassCounts, int runCount, int classCount) {
+        this.classCount = classCount;
+        final long tableSize = (runCount + 1L) * classCount;
+        if (tableSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Column has too many distinct values to build a class histogram with "
+                    + classCount + " classes");
+        }
+        this.cumulativeCounts = new int[(int) tableSize];
+        this.cumulativeSizes = new int[runCount + 1];
+        for (int run = 0; run < runCount; run++) {
+            final int offset = run * classCount;
+            int runSize = 0;
+            for (int c = 0; c < classCount; c++) {
+                cumulativeCounts[offset + classCount + c] = cumulativeCounts[offset + c] + runClassCounts[offset + c];
+                runSize += runClassCounts[offset + c];
+            }
+            cumulativeSizes[run + 1] = cumulativeSizes[run] + runSize;
+        }
+    }
+
+    /**
+     * @return the number of classes m
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * Counts the values within a range of runs
+     *
+     * @param begin first run, inclusive
+     * @param end   last run, inclusive
+     * @return the number of values in the range
+     */
+    public int size(int begin, int end) {
+        if (end < begin) {
+            return 0;
+        }
+        return cumulativeSizes[end + 1] - cumulativeSizes[begin];
+    }
+
+    /**
+     * Counts the values of a class within a range of runs
+     *
+     * @param begin      first run, inclusive
+     * @param end        last run, inclusive
+     * @param classIndex the class to count
+     * @return the number of values of this class in the range
+     */
+    public int count(int begin, int end, int classIndex) {
+        if (end < begin) {
+            return 0;
+        }
+        return cumulativeCounts[(end + 1) * classCount + classIndex] - cumulativeCounts[begin * classCount + classIndex];
+    }
+
+    /**
+     * Determines the class distribution of a range of runs
+     *
+     * @param begin first run, inclusive
+     * @param end   last run, inclusive
+     * @return the number of values per class in the range
+     */
+    public int[] classDistribution(int begin, int end) {
+        final int[] classDistribution = new int[classCount];
+        classDistribution(begin, end, classDistribution);
+        return classDistribution;
+    }
+
+    /**
+     * Determines the class distribution of a range of runs without allocating
+     *
+     * @param begin             first run, inclusive
+     * @param end               last run, inclusive
+     * @param classDistribution array of length m the number of values per class in the range are written to
+     */
+    public void classDistribution(int begin, int end, int[] classDistribution) {
+        if (end < begin) {
+            Arrays.fill(classDistribution, 0, classCount, 0);
+            return;
+        }
+        final int endOffset = (end + 1) * classCount;
+        final int beginOffset = begin * classCount;
+        for (int c = 0; c < classCount; c++) {
+            classDistribution[c] = cumulativeCounts[endOffset + c] - cumulativeCounts[beginOffset + c];
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package de.viadee.discretizers4j;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Random sample of a column, drawn in a single pass without copying the column, to fit discretizers on fewer values.
+ * <p>
+ * Samples are reproducible, drawing them twice with the same seed yields the same values. How stable fits on samples of
+ * a given size are can be checked with {@link SampleStability}.
+ */
+public final class ColumnSample {
+    private final double[] values;
+    private final int[] classIndices;
+
+    private ColumnSample(double[] values, int[] classIndices) {
+        this.values = values;
+        this.classIndices = classIndices;
+    }
+
+    /**
+     * Draws a uniform sample by reservoir sampling. Positions past the reservoir are skipped by geometrically
+     * distributed gaps, so only O(sampleSize * (1 + log(n / sampleSize))) values are read.
+     *
+     * @param values     the column, left untouched
+     * @param sampleSize the number of values to draw, all values if the column is smaller
+     * @param seed       the seed of the random generator
+     * @return the sample, without labels
+     */
+    public static ColumnSample reservoir(double[] values, int sampleSize, long seed) {
+        checkArguments(values, sampleSize);
+        if (sampleSize >= values.length) {
+            return new ColumnSample(Arrays.copyOf(values, values.length), null);
+        }
+
+        final Random random = new Random(seed);
+        final double[] reservoir = Arrays.copyOf(values, sampleSize);
+        double w = Math.exp(Math.log(nextPositive(random)) / sampleSize);
+        int i = sampleSize - 1;
+        while (true) {
+            final double gap = Math.floor(Math.log(nextPositive(random)) / Math.log1p(-w));
+            if (i + gap + 1 >= values.length) {
+                break;
+            }
+            i += (int) gap + 1;
+            reservoir[random.nextInt(sampleSize)] = values[i];
+            w *= Math.exp(Math.log(nextPositive(random)) / sampleSize);
+        }
+        return new ColumnSample(reservoir, null);
+    }
+
+    /**
+     * Draws a sample stratified by class, keeping the class proportions of the column. Each class present in the column
+     * keeps at least one value.
+     * <p>
+     * One reservoir of up to sampleSize values is filled per class in a single pass over the column. Afterwards each
+     * class' share is drawn from its reservoir.
+     *
+     * @param values       the column, left untouched
+     * @param classIndices the class index of each value, left untouched
+     * @param sampleSize   the number of values to draw, all values if the column is smaller
+     * @param seed         the seed of the random generator
+     * @return the sample and the class indices of its values
+     */
+    public static ColumnSample stratified(double[] values, int[] classIndices, int sampleSize, long seed) {
+        checkArguments(values, sampleSize);
+        if (classIndices == null) {
+            throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+        }
+        if (classIndices.length != values.length) {
+            throw new IllegalArgumentException("Labels need to be of same length as column values");
+        }
+        if (sampleSize >= values.length) {
+            return new ColumnSample(Arrays.copyOf(values, values.length),
+                    Arrays.copyOf(classIndices, classIndices.length));
+        }
+
+        final Random random = new Random(seed);
+        final Map<Integer, Reservoir> reservoirs = new HashMap<>();
+        Reservoir current = null;
+        for (int i = 0; i < values.length; i++) {
+            if (current == null || current.classIndex != classIndices[i]) {
+                current = reservoirs.computeIfAbsent(classIndices[i], Reservoir::new);
+                if (current.values == null) {
+                    if ((long) reservoirs.size() * sampleSize > Integer.MAX_VALUE - 8) {
+                        throw new IllegalArgumentException("Too many classes to draw a stratified sample of "
+                                + sampleSize + " values");
+                    }
+                    current.values = new double[sampleSize];
+                }
+            }
+            current.add(values[i], random);
+        }
+
+        final Reservoir[] classes = reservoirs.values().stream()
+                .sorted((a, b) -> Integer.compare(a.classIndex, b.classIndex)).toArray(Reservoir[]::new);
+        final int[] quotas = allocate(classes, sampleSize, values.length);
+        final int size = Arrays.stream(quotas).sum();
+        final double[] sample = new double[size];
+        final int[] sampleClassIndices = new int[size];
+        int position = 0;
+        for (int c = 0; c < classes.length; c++) {
+            final Reservoir reservoir = classes[c];
+            final int retained = (int) Math.min(reservoir.seen, sampleSize);
+            // Partial shuffle, the first quota values are a uniform sample of the reservoir
+            for (int i = 0; i < quotas[c]; i++) {
+                final int j = i + random.nextInt(retained - i);
+                final double swap = reservoir.values[i];
+                reservoir.values[i] = reservoir.values[j];
+                reservoir.values[j] = swap;
+                sample[position] = reservoir.values[i];
+                sampleClassIndices[position++] = reservoir.classIndex;
+            }
+        }
+        return new ColumnSample(sample, sampleClassIndices);
+    }
+
+    /**
+     * @return a uniform random number in (0, 1]
+     */
+    private static double nextPositive(Random random) {
+        return 1 - random.nextDouble();
+    }
+
+    private static void checkArguments(double[] values, int sampleSize) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+        if (sampleSize < 1) {
+            throw new IllegalArgumentException("Sample size must be positive");
+        }
+    }
+
+    /**
+     * Splits the sample size proportionally to the class sizes by largest remainders, giving each class at least one
+     * value
+     */
+    private static int[] allocate(Reservoir[] classes, int sampleSize, int columnSize) {
+        final int[] quotas = new int[classes.length];
+        final double[] remainders = new double[classes.length];
+        int allocated = 0;
+        for (int c = 0; c < classes.length; c++) {
+            final double share = classes[c].seen * (double) sampleSize / columnSize;
+            quotas[c] = Math.max(1, (int) share);
+            remainders[c] = share - (int) share;
+            allocated += quotas[c];
+        }
+        while (allocated < sampleSize) {
+            int best = -1;
+            for (int c = 0; c < classes.length; c++) {
+                if (quotas[c] < Math.min(classes[c].seen, sampleSize) && (best < 0 || remainders[c] > remainders[best])) {
+                    best = c;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            quotas[best]++;
+            remainders[best] = -1;
+            allocated++;
+        }
+        return quotas;
+    }
+
+    /**
+     * @return the number of values drawn
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return the values drawn, in no particular order
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return true, if the sample was stratified and holds class indices
+     */
+    public boolean isLabeled() {
+        return classIndices != null;
+    }
+
+    /**
+     * @return the class index of each value drawn, or null for unlabeled samples
+     */
+    public int[] getClassIndices() {
+        return classIndices;
+    }
+
+    /**
+     * Uniform sample of the values of one class
+     */
+    private static final class Reservoir {
+        private final int classIndex;
+        private double[] values;
+        private long seen;
+
+        private Reservoir(int classIndex) {
+            this.classIndex = classIndex;
+        }
+
+        private void add(double value, Random random) {
+            seen++;
+            if (seen <= values.length) {
+                values[(int) seen - 1] = value;
+            } else {
+                final long position = (long) (random.nextDouble() * seen);
+                if (position < values.length) {
+                    values[(int) position] = value;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package de.viadee.discretizers4j;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of fitting a discretizer: its transitions compiled for lookups.
+ * <p>
+ * All state is final and never changes after construction, so a model may be shared by any number of threads without
+ * synchronization.
+ */
+public final class DiscretizationModel {
+    private final List<DiscretizationTransition> transitions;
+    private final NumericTransitionIndex numericTransitionIndex;
+    private final CategoricalTransitionIndex categoricalTransitionIndex;
+    private final Map<Double, Integer> transitionIndicesByDiscretizedValue;
+
+    private DiscretizationModel(List<DiscretizationTransition> transitions,
+                                Map<Double, Integer> transitionIndicesByDiscretizedValue) {
+        this.transitions = transitions;
+        this.transitionIndicesByDiscretizedValue = transitionIndicesByDiscretizedValue;
+        this.numericTransitionIndex = NumericTransitionIndex.compile(transitions);
+        this.categoricalTransitionIndex = (numericTransitionIndex != null) ? null
+                : CategoricalTransitionIndex.compile(transitions);
+    }
+
+    /**
+     * Compiles fitted transitions. In case all origins are numeric, the lowest and highest ones are replaced by
+     * origins open to the lower and upper side respectively.
+     *
+     * @param transitions the fitted transitions, in lookup order
+     * @return the model
+     */
+    static DiscretizationModel compile(List<DiscretizationTransition> transitions) {
+        final List<DiscretizationTransition> compiledTransitions = new ArrayList<>(transitions);
+
+        final Map<Double, Integer> transitionIndices = new HashMap<>();
+        for (int i = 0; i < compiledTransitions.size(); i++) {
+            if (transitionIndices.putIfAbsent(compiledTransitions.get(i).getDiscretizedValue(), i) != null) {
+                // This could be required for some scenarios.. Not yet, though
+                throw new IllegalArgumentException("Discretization targets are ambiguous");
+            }
+        }
+
+        if (!compiledTransitions.isEmpty() && compiledTransitions.stream()
+                .allMatch(d -> d.getDiscretizationOrigin() instanceof NumericDiscretizationOrigin)) {
+            int minIndex = 0;
+            int maxIndex = 0;
+            for (int i = 0; i < compiledTransitions.size(); i++) {
+                if (numericOrigin(compiledTransitions.get(i)).getMinValue().doubleValue() <
+                        numericOrigin(compiledTransitions.get(minIndex)).getMinValue().doubleValue())
+                    minIndex = i;
+                if (numericOrigin(compiledTransitions.get(i)).getMaxValue().doubleValue() >
+                        numericOrigin(compiledTransitions.get(maxIndex)).getMaxValue().doubleValue())
+                    maxIndex = i;
+            }
+            open(compiledTransitions, minIndex, true, false);
+            open(compiledTransitions, maxIndex, false, true);
+        }
+
+        return new DiscretizationModel(Collections.unmodifiableList(compiledTransitions), transitionIndices);
+    }
+
+    private static NumericDiscretizationOrigin numericOrigin(DiscretizationTransition transition) {
+        return (NumericDiscretizationOrigin) transition.getDiscretizationOrigin();
+    }
+
+    private static void open(List<DiscretizationTransition> transitions, int index, boolean first, boolean last) {
+        final DiscretizationTransition transition = transitions.get(index);
+        final NumericDiscretizationOrigin origin = numericOrigin(transition);
+        transitions.set(index, new DiscretizationTransition(new NumericDiscretizationOrigin(origin.getMinValue(),
+                origin.getMaxValue(), origin.isFirst() || first, origin.isLast() || last),
+                transition.getDiscretizedValue()));
+    }
+
+    /**
+     * @return the transitions, unmodifiable
+     */
+    public List<DiscretizationTransition> getTransitions() {
+        return transitions;
+    }
+
+    /**
+     * Returns the transition of a discretized value
+     *
+     * @param discretizedValue the value to get the relation for
+     * @return the {@link DiscretizationTransition}
+     */
+    public DiscretizationTransition getTransition(Double discretizedValue) {
+        final Integer transitionIndex = transitionIndicesByDiscretizedValue.get(discretizedValue);
+        if (transitionIndex == null) {
+            throw new IllegalArgumentException("Could not find transition for discretized value " + discretizedValue);
+        }
+        return transitions.get(transitionIndex);
+    }
+
+    /**
+     * Looks up the transition a value belongs to
+     *
+     * @param value the value to be discretized
+     * @return the position of its transition in {@link #getTransitions()}
+     */
+    public int transitionIndexOf(Serializable value) {
+        int transitionIndex = -1;
+        if (numericTransitionIndex != null && value instanceof Number) {
+            transitionIndex = numericTransitionIndex.transitionIndexOf(((Number) value).doubleValue());
+        } else if (categoricalTransitionIndex != null) {
+            transitionIndex = categoricalTransitionIndex.transitionIndexOf(value);
+        } else {
+            for (int i = 0; i < transitions.size() && transitionIndex < 0; i++) {
+                if (transitions.get(i).getDiscretizationOrigin().canDiscretize(value)) {
+                    transitionIndex = i;
+                }
+            }
+        }
+        if (transitionIndex < 0) {
+            throw new IllegalArgumentException("Could not find transition for " + value);
+        }
+        return transitionIndex;
+    }
+
+    /**
+     * Applies the model to a value
+     *
+     * @param value the value to be discretized
+     * @return the discretized value
+     */
+    public Double apply(Serializable value) {
+        return transitions.get(transitionIndexOf(value)).getDiscretizedValue();
+    }
+
+    /**
+     * Applies the model to the passed numeric data and writes the results to an existing array
+     *
+     * @param data            the data to discretize
+     * @param discretizedData the array to write the discretized data to, of the same length as data
+     */
+    public void apply(double[] data, double[] discretizedData) {
+        if (data.length != discretizedData.length) {
+            throw new IllegalArgumentException("Output array needs to be of same length as the data");
+        }
+        if (numericTransitionIndex == null) {
+            for (int i = 0; i < data.length; i++) {
+                discretizedData[i] = apply(Double.valueOf(data[i]));
+            }
+            return;
+        }
+        for (int i = 0; i < data.length; i++) {
+            final double discretizedValue = numericTransitionIndex.discretize(data[i]);
+            if (Double.isNaN(discretizedValue) && numericTransitionIndex.transitionIndexOf(data[i]) < 0) {
+                throw new IllegalArgumentException("Could not find transition for " + data[i]);
+            }
+            discretizedData[i] = discretizedValue;
+        }
+    }
+
+    /**
+     * Determines the transition each value of the passed numeric data is discretized by
+     *
+     * @param data the data to discretize
+     * @return for each value the position of its {@link DiscretizationTransition} in {@link #getTransitions()}
+     */
+    public int[] applyToIndex(double[] data) {
+        final int[] indices = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            final int transitionIndex = (numericTransitionIndex != null)
+                    ? numericTransitionIndex.transitionIndexOf(data[i]) : transitionIndexOf(data[i]);
+            if (transitionIndex < 0) {
+                throw new IllegalArgumentException("Could not find transition for " + data[i]);
+            }
+            indices[i] = transitionIndex;
+        }
+        return indices;
+    }
+}
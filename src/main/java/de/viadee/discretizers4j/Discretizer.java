@@ -1,7 +1,11 @@
 package de.viadee.discretizers4j;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 /**
@@ -29,6 +33,53 @@ public interface Discretizer extends Function<Serializable, Double>, Serializabl
         return discretizedData;
     }
 
+    /**
+     * Applies this discretizer to the passed numeric data
+     *
+     * @param data the data to discretize
+     * @return the discretized data
+     */
+    default double[] apply(double[] data) {
+        final double[] discretizedData = new double[data.length];
+        this.apply(data, discretizedData);
+        return discretizedData;
+    }
+
+    /**
+     * Applies this discretizer to the passed numeric data and writes the results to an existing array
+     *
+     * @param data            the data to discretize
+     * @param discretizedData the array to write the discretized data to, of the same length as data
+     */
+    default void apply(double[] data, double[] discretizedData) {
+        if (data.length != discretizedData.length) {
+            throw new IllegalArgumentException("Output array needs to be of same length as the data");
+        }
+        for (int i = 0; i < data.length; i++) {
+            discretizedData[i] = this.apply(Double.valueOf(data[i]));
+        }
+    }
+
+    /**
+     * Determines the transition each value of the passed numeric data is discretized by
+     *
+     * @param data the data to discretize
+     * @return for each value the position of its {@link DiscretizationTransition} in {@link #getTransitions()}
+     */
+    default int[] applyToIndex(double[] data) {
+        final List<DiscretizationTransition> transitions = new ArrayList<>(getTransitions());
+        final Map<Double, Integer> transitionIndices = new HashMap<>();
+        for (int i = 0; i < transitions.size(); i++) {
+            transitionIndices.putIfAbsent(transitions.get(i).getDiscretizedValue(), i);
+        }
+
+        final int[] indices = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            indices[i] = transitionIndices.get(this.apply(Double.valueOf(data[i])));
+        }
+        return indices;
+    }
+
     /**
      * Fits the discretizer and passes all values that it might get asked to discretize
      *
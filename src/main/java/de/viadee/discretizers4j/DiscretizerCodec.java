@@ -0,0 +1,305 @@
+package de.viadee.discretizers4j;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact, versioned binary format of fitted discretizers.
+ * <p>
+ * A model consists of a 16 byte header (magic, version, kind, transition count and payload length) followed by the
+ * payload. All numbers are little endian. Numeric models store the lower boundaries, upper boundaries and discretized
+ * values of all transitions as raw double arrays. Categorical models store the discretized values followed by a
+ * dictionary block of the levels. Loaded models apply values exactly like the discretizer they were written from.
+ */
+public final class DiscretizerCodec {
+    private static final int MAGIC = 0x4D4A3444;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    /** Initial size of the buffer payloads of unknown channels are read into, it grows as bytes arrive */
+    private static final int READ_CHUNK_SIZE = 1 << 16;
+
+    private static final byte KIND_NUMERIC = 1;
+    private static final byte KIND_CATEGORICAL = 2;
+
+    private static final byte LEVEL_STRING = 1;
+    private static final byte LEVEL_DOUBLE = 2;
+    private static final byte LEVEL_INTEGER = 3;
+    private static final byte LEVEL_LONG = 4;
+    /** Bytes of the smallest encoded level, an integer or an empty string */
+    private static final int MIN_LEVEL_SIZE = 1 + Integer.BYTES;
+
+    private DiscretizerCodec() {
+    }
+
+    /**
+     * Writes a fitted discretizer
+     *
+     * @param discretizer the fitted discretizer
+     * @param channel     the channel to write to, left open
+     * @throws IOException if writing fails
+     */
+    public static void write(Discretizer discretizer, WritableByteChannel channel) throws IOException {
+        final ByteBuffer buffer = encode(discretizer);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a discretizer written by {@link #write(Discretizer, WritableByteChannel)}
+     *
+     * @param channel the channel to read from, positioned at the start of a model and left open
+     * @return the fitted discretizer
+     * @throws IOException if reading fails
+     */
+    public static FittedDiscretizer read(ReadableByteChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header);
+        header.flip();
+        // The declared length is only trusted once the header is known to be one of a model
+        final int payloadLength = checkHeader(header);
+        if (channel instanceof SeekableByteChannel) {
+            final SeekableByteChannel seekableChannel = (SeekableByteChannel) channel;
+            if (payloadLength > seekableChannel.size() - seekableChannel.position()) {
+                throw new IllegalArgumentException("Model is truncated");
+            }
+        }
+
+        // Channels of unknown size are read in growing chunks, so a corrupt length cannot allocate more memory than
+        // twice the bytes actually read
+        ByteBuffer model = ByteBuffer.allocate(HEADER_SIZE + Math.min(payloadLength, READ_CHUNK_SIZE));
+        header.rewind();
+        model.put(header);
+        while (true) {
+            readFully(channel, model);
+            if (model.capacity() == HEADER_SIZE + payloadLength) {
+                break;
+            }
+            final ByteBuffer grown = ByteBuffer.allocate(HEADER_SIZE
+                    + (int) Math.min(payloadLength, 2L * (model.capacity() - HEADER_SIZE)));
+            model.flip();
+            grown.put(model);
+            model = grown;
+        }
+        model.flip();
+        return decode(model);
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IllegalArgumentException("Model is truncated");
+            }
+        }
+    }
+
+    /**
+     * Checks magic, version, kind and transition count of a header and whether its payload length fits them
+     *
+     * @param header the header, positioned at its start, position is advanced past it
+     * @return the payload length
+     */
+    private static int checkHeader(ByteBuffer header) {
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a discretizer model");
+        }
+        final short version = header.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported model version " + version);
+        }
+        final byte kind = header.get();
+        header.get();
+        final int count = header.getInt();
+        final int payloadLength = header.getInt();
+        if (count <= 0 || payloadLength < 0) {
+            throw new IllegalArgumentException("Corrupt model, transition count " + count + ", payload length "
+                    + payloadLength);
+        }
+        if (kind == KIND_NUMERIC) {
+            if (payloadLength != 3L * Double.BYTES * count) {
+                throw new IllegalArgumentException("Corrupt model, payload length " + payloadLength + " does not fit "
+                        + count + " numeric transitions");
+            }
+        } else if (kind == KIND_CATEGORICAL) {
+            if (payloadLength < (long) (Double.BYTES + MIN_LEVEL_SIZE) * count) {
+                throw new IllegalArgumentException("Corrupt model, payload length " + payloadLength + " does not fit "
+                        + count + " categorical transitions");
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown model kind " + kind);
+        }
+        return payloadLength;
+    }
+
+    /**
+     * Encodes a fitted discretizer
+     *
+     * @param discretizer the fitted discretizer
+     * @return the model, ready to be read from
+     */
+    public static ByteBuffer encode(Discretizer discretizer) {
+        if (discretizer.getTransitions() == null) {
+            throw new IllegalArgumentException("Discretizer has not been fitted");
+        }
+        final List<DiscretizationTransition> transitions = new ArrayList<>(discretizer.getTransitions());
+        final int count = transitions.size();
+
+        if (transitions.stream().allMatch(t -> t.getDiscretizationOrigin() instanceof NumericDiscretizationOrigin)) {
+            final ByteBuffer buffer = allocate(HEADER_SIZE + 3L * Double.BYTES * count);
+            putHeader(buffer, KIND_NUMERIC, count);
+            for (DiscretizationTransition transition : transitions) {
+                buffer.putDouble(((NumericDiscretizationOrigin) transition.getDiscretizationOrigin()).getMinValue().doubleValue());
+            }
+            for (DiscretizationTransition transition : transitions) {
+                buffer.putDouble(((NumericDiscretizationOrigin) transition.getDiscretizationOrigin()).getMaxValue().doubleValue());
+            }
+            putDiscretizedValues(buffer, transitions);
+            return finish(buffer);
+        }
+
+        if (transitions.stream().allMatch(t -> t.getDiscretizationOrigin() instanceof CategoricalDiscretizationOrigin)) {
+            final List<byte[]> encodedLevels = new ArrayList<>(count);
+            long dictionarySize = 0;
+            for (DiscretizationTransition transition : transitions) {
+                final byte[] encodedLevel = encodeLevel(((CategoricalDiscretizationOrigin) transition.getDiscretizationOrigin()).getValue());
+                encodedLevels.add(encodedLevel);
+                dictionarySize += encodedLevel.length;
+            }
+
+            final ByteBuffer buffer = allocate(HEADER_SIZE + (long) Double.BYTES * count + dictionarySize);
+            putHeader(buffer, KIND_CATEGORICAL, count);
+            putDiscretizedValues(buffer, transitions);
+            for (byte[] encodedLevel : encodedLevels) {
+                buffer.put(encodedLevel);
+            }
+            return finish(buffer);
+        }
+
+        throw new IllegalArgumentException("Only discretizers with either numeric or categorical origins can be encoded");
+    }
+
+    /**
+     * Decodes a model and advances the buffer's position past it
+     *
+     * @param buffer the buffer, positioned at the start of a model
+     * @return the fitted discretizer
+     */
+    public static FittedDiscretizer decode(ByteBuffer buffer) {
+        final ByteBuffer model = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        final int payloadLength = checkHeader(model);
+        if (model.remaining() < payloadLength) {
+            throw new IllegalArgumentException("Model is truncated");
+        }
+        final byte kind = model.get(6);
+        final int count = model.getInt(8);
+        model.limit(HEADER_SIZE + payloadLength);
+
+        final List<DiscretizationTransition> transitions = new ArrayList<>(count);
+        if (kind == KIND_NUMERIC) {
+            final double[] minValues = getDoubles(model, count);
+            final double[] maxValues = getDoubles(model, count);
+            final double[] discretizedValues = getDoubles(model, count);
+            for (int i = 0; i < count; i++) {
+                transitions.add(new DiscretizationTransition(
+                        new NumericDiscretizationOrigin(minValues[i], maxValues[i]), discretizedValues[i]));
+            }
+        } else {
+            final double[] discretizedValues = getDoubles(model, count);
+            for (int i = 0; i < count; i++) {
+                transitions.add(new DiscretizationTransition(
+                        new CategoricalDiscretizationOrigin(decodeLevel(model)), discretizedValues[i]));
+            }
+        }
+
+        buffer.position(buffer.position() + HEADER_SIZE + payloadLength);
+        return new FittedDiscretizer(transitions);
+    }
+
+    private static ByteBuffer allocate(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Discretizer is too large to be encoded");
+        }
+        return ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void putHeader(ByteBuffer buffer, byte kind, int count) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put(kind);
+        buffer.put((byte) 0);
+        buffer.putInt(count);
+        buffer.putInt(buffer.capacity() - HEADER_SIZE);
+    }
+
+    private static void putDiscretizedValues(ByteBuffer buffer, List<DiscretizationTransition> transitions) {
+        for (DiscretizationTransition transition : transitions) {
+            buffer.putDouble(transition.getDiscretizedValue());
+        }
+    }
+
+    private static ByteBuffer finish(ByteBuffer buffer) {
+        buffer.flip();
+        return buffer;
+    }
+
+    private static double[] getDoubles(ByteBuffer buffer, int count) {
+        if (buffer.remaining() < (long) Double.BYTES * count) {
+            throw new IllegalArgumentException("Model is truncated");
+        }
+        final double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + Double.BYTES * count);
+        return values;
+    }
+
+    private static byte[] encodeLevel(Serializable level) {
+        final ByteBuffer buffer;
+        if (level instanceof String) {
+            final byte[] bytes = ((String) level).getBytes(StandardCharsets.UTF_8);
+            buffer = ByteBuffer.allocate(1 + Integer.BYTES + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(LEVEL_STRING).putInt(bytes.length).put(bytes);
+        } else if (level instanceof Double) {
+            buffer = ByteBuffer.allocate(1 + Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(LEVEL_DOUBLE).putDouble((Double) level);
+        } else if (level instanceof Integer) {
+            buffer = ByteBuffer.allocate(1 + Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(LEVEL_INTEGER).putInt((Integer) level);
+        } else if (level instanceof Long) {
+            buffer = ByteBuffer.allocate(1 + Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(LEVEL_LONG).putLong((Long) level);
+        } else {
+            throw new IllegalArgumentException("Levels of type " + level.getClass().getName() + " cannot be encoded");
+        }
+        return buffer.array();
+    }
+
+    private static Serializable decodeLevel(ByteBuffer buffer) {
+        final byte type = buffer.get();
+        switch (type) {
+            case LEVEL_STRING:
+                final int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new IllegalArgumentException("Model is truncated");
+                }
+                final byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            case LEVEL_DOUBLE:
+                return buffer.getDouble();
+            case LEVEL_INTEGER:
+                return buffer.getInt();
+            case LEVEL_LONG:
+                return buffer.getLong();
+            default:
+                throw new IllegalArgumentException("Unknown level type " + type);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package de.viadee.discretizers4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only registry of fitted discretizers stored in one memory-mapped file.
+ * <p>
+ * The file starts with an index from model key to the offset and length of the model, followed by the models in the
+ * format of {@link DiscretizerCodec}. Opening a registry only reads the index. A model is decoded on first access and
+ * kept in a bounded cache of recently used models, the mapped file itself is paged in by the operating system. As the
+ * file is mapped read-only, all JVMs on a host opening the same file share its pages.
+ * <p>
+ * Files are limited to 2 GB.
+ */
+public final class DiscretizerRegistry implements Closeable {
+    private static final int MAGIC = 0x524A3444;
+    private static final short VERSION = 1;
+    /** Bytes of an index entry with an empty key: key length, offset and model length */
+    private static final int MIN_INDEX_ENTRY_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer mappedFile;
+    private final Map<String, long[]> index;
+    private final Map<String, FittedDiscretizer> hydratedModels;
+    private volatile boolean closed;
+
+    private DiscretizerRegistry(FileChannel channel, MappedByteBuffer mappedFile, Map<String, long[]> index,
+                                int maxHydratedModels) {
+        this.channel = channel;
+        this.mappedFile = mappedFile;
+        this.index = index;
+        this.hydratedModels = new LinkedHashMap<String, FittedDiscretizer>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FittedDiscretizer> eldest) {
+                return size() > maxHydratedModels;
+            }
+        };
+    }
+
+    /**
+     * Writes a registry file, replacing an existing one.
+     * <p>
+     * The file is written to a temporary file in the same directory and moved over the existing one atomically, so
+     * registries having the former file mapped keep reading it unchanged.
+     *
+     * @param path   the file to write
+     * @param models the fitted discretizers by key
+     * @throws IOException if writing fails
+     */
+    public static void write(Path path, Map<String, ? extends Discretizer> models) throws IOException {
+        final List<byte[]> keys = new ArrayList<>(models.size());
+        final List<ByteBuffer> encodedModels = new ArrayList<>(models.size());
+        long indexSize = 0;
+        for (Map.Entry<String, ? extends Discretizer> model : models.entrySet()) {
+            final byte[] key = model.getKey().getBytes(StandardCharsets.UTF_8);
+            keys.add(key);
+            encodedModels.add(DiscretizerCodec.encode(model.getValue()));
+            indexSize += Integer.BYTES + key.length + Long.BYTES + Integer.BYTES;
+        }
+
+        final long headerSize = Integer.BYTES + Short.BYTES + Short.BYTES + Integer.BYTES;
+        if (headerSize + indexSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many models for a registry");
+        }
+        final ByteBuffer header = ByteBuffer.allocate((int) (headerSize + indexSize)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(models.size());
+        long offset = headerSize + indexSize;
+        for (int i = 0; i < keys.size(); i++) {
+            header.putInt(keys.get(i).length).put(keys.get(i));
+            header.putLong(offset).putInt(encodedModels.get(i).remaining());
+            offset += encodedModels.get(i).remaining();
+        }
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Models exceed the registry size limit of 2 GB");
+        }
+        header.flip();
+
+        final Path absolutePath = path.toAbsolutePath();
+        final Path temporaryFile = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName() + ".",
+                ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                writeFully(out, header);
+                for (ByteBuffer encodedModel : encodedModels) {
+                    writeFully(out, encodedModel);
+                }
+                out.force(true);
+            }
+            Files.move(temporaryFile, absolutePath, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Opens a registry file
+     *
+     * @param path              the file written by {@link #write(Path, Map)}
+     * @param maxHydratedModels number of decoded models to keep, least recently used ones are dropped first
+     * @return the registry, to be closed once no longer used
+     * @throws IOException if reading fails
+     */
+    public static DiscretizerRegistry open(Path path, int maxHydratedModels) throws IOException {
+        if (maxHydratedModels < 1) {
+            throw new IllegalArgumentException("At least one model needs to be kept");
+        }
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Registry exceeds the size limit of 2 GB");
+            }
+            final MappedByteBuffer mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new DiscretizerRegistry(channel, mappedFile, readIndex(mappedFile), maxHydratedModels);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static Map<String, long[]> readIndex(MappedByteBuffer mappedFile) {
+        final ByteBuffer header = mappedFile.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (header.remaining() < 12 || header.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a discretizer registry");
+        }
+        final short version = header.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported registry version " + version);
+        }
+        header.getShort();
+        final int count = header.getInt();
+        // Lengths read from the file are checked against the bytes left before anything is allocated
+        if (count < 0 || (long) count * MIN_INDEX_ENTRY_SIZE > header.remaining()) {
+            throw new IllegalArgumentException("Corrupt registry, index of " + count + " models is truncated");
+        }
+
+        final Map<String, long[]> index = new HashMap<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                final int keyLength = header.getInt();
+                if (keyLength < 0 || keyLength > header.remaining()) {
+                    throw new IllegalArgumentException("Corrupt registry, key length " + keyLength);
+                }
+                final byte[] key = new byte[keyLength];
+                header.get(key);
+                final long offset = header.getLong();
+                final int length = header.getInt();
+                if (offset < 0 || length < 0 || offset + length > mappedFile.capacity()) {
+                    throw new IllegalArgumentException("Registry is truncated");
+                }
+                index.put(new String(key, StandardCharsets.UTF_8), new long[]{offset, length});
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Registry is truncated", e);
+        }
+        return index;
+    }
+
+    /**
+     * @return the keys of all models
+     */
+    public Set<String> keySet() {
+        checkOpen();
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * @param key the model key
+     * @return true, if the registry holds a model of this key
+     */
+    public boolean containsKey(String key) {
+        checkOpen();
+        return index.containsKey(key);
+    }
+
+    /**
+     * Returns a model, decoding it on first access or if it has been dropped from the cache since
+     *
+     * @param key the model key
+     * @return the fitted discretizer
+     */
+    public Discretizer get(String key) {
+        synchronized (hydratedModels) {
+            checkOpen();
+            final FittedDiscretizer hydratedModel = hydratedModels.get(key);
+            if (hydratedModel != null) {
+                return hydratedModel;
+            }
+        }
+
+        final long[] location = index.get(key);
+        if (location == null) {
+            throw new IllegalArgumentException("No model for key " + key);
+        }
+        final ByteBuffer model = mappedFile.duplicate();
+        model.position((int) location[0]).limit((int) (location[0] + location[1]));
+        final FittedDiscretizer decodedModel = DiscretizerCodec.decode(model);
+
+        synchronized (hydratedModels) {
+            checkOpen();
+            // Another thread may have decoded it meanwhile
+            final FittedDiscretizer hydratedModel = hydratedModels.putIfAbsent(key, decodedModel);
+            return (hydratedModel != null) ? hydratedModel : decodedModel;
+        }
+    }
+
+    /**
+     * Applies a model to the passed numeric data
+     *
+     * @param key  the model key
+     * @param data the data to discretize
+     * @return the discretized data
+     */
+    public double[] apply(String key, double[] data) {
+        return get(key).apply(data);
+    }
+
+    /**
+     * @return the number of currently decoded models
+     */
+    public int getHydratedModelCount() {
+        synchronized (hydratedModels) {
+            return hydratedModels.size();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Registry has been closed");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (hydratedModels) {
+            closed = true;
+            hydratedModels.clear();
+        }
+        channel.close();
+    }
+}
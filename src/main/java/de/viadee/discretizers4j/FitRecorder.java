@@ -0,0 +1,134 @@
+package de.viadee.discretizers4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the {@link FitReport} of a fit.
+ * <p>
+ * Discretizers report aggregated numbers once per phase or task rather than per value, so recording is cheap. Counters
+ * may be reported from several threads. While reporting is disabled, {@link #DISABLED} ignores everything without
+ * reading the clock.
+ */
+public final class FitRecorder {
+    /**
+     * Recorder of discretizers not reporting their fits
+     */
+    public static final FitRecorder DISABLED = new FitRecorder(false);
+
+    private final boolean enabled;
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private long firstStart = -1;
+    private long lastEnd;
+    private final AtomicLong candidatesEvaluated = new AtomicLong();
+    private final AtomicLong intervalsBuilt = new AtomicLong();
+    private final AtomicLong iterations = new AtomicLong();
+    private final AtomicLong recursionDepth = new AtomicLong();
+    private final AtomicLong peakScratchBytes = new AtomicLong();
+
+    FitRecorder() {
+        this(true);
+    }
+
+    private FitRecorder(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return true, if the fit is recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enters a phase
+     *
+     * @return the start time to pass to {@link #phase(String, long)}
+     */
+    public long start() {
+        return enabled ? startPhase() : 0;
+    }
+
+    private synchronized long startPhase() {
+        final long start = System.nanoTime();
+        if (firstStart < 0) {
+            firstStart = start;
+        }
+        return start;
+    }
+
+    /**
+     * Leaves a phase, adding the time since its start to it
+     *
+     * @param name  the phase
+     * @param start the time returned by {@link #start()}
+     */
+    public void phase(String name, long start) {
+        if (enabled) {
+            endPhase(name, start);
+        }
+    }
+
+    private synchronized void endPhase(String name, long start) {
+        lastEnd = System.nanoTime();
+        phaseNanos.merge(name, lastEnd - start, Long::sum);
+    }
+
+    /**
+     * @param count number of tentative cut points or merges scored
+     */
+    public void candidatesEvaluated(long count) {
+        if (enabled) {
+            candidatesEvaluated.addAndGet(count);
+        }
+    }
+
+    /**
+     * Counts intervals the same way for all algorithms: the initial ones, i.e. the equal class intervals or the whole
+     * column, plus two per accepted split and one per accepted merge
+     *
+     * @param count number of intervals created
+     */
+    public void intervalsBuilt(long count) {
+        if (enabled) {
+            intervalsBuilt.addAndGet(count);
+        }
+    }
+
+    /**
+     * @param count number of splits or merges accepted
+     */
+    public void iterations(long count) {
+        if (enabled) {
+            iterations.addAndGet(count);
+        }
+    }
+
+    /**
+     * @param depth a level of recursion reached, the deepest one is kept
+     */
+    public void recursionDepth(int depth) {
+        if (enabled) {
+            recursionDepth.accumulateAndGet(depth, Math::max);
+        }
+    }
+
+    /**
+     * @param bytes bytes held by working arrays at some point, the largest number is kept
+     */
+    public void scratchBytes(long bytes) {
+        if (enabled) {
+            peakScratchBytes.accumulateAndGet(bytes, Math::max);
+        }
+    }
+
+    /**
+     * @return the report of everything recorded
+     */
+    synchronized FitReport finish() {
+        return new FitReport(phaseNanos, (firstStart < 0) ? 0 : lastEnd - firstStart, candidatesEvaluated.get(),
+                intervalsBuilt.get(), iterations.get(), (int) recursionDepth.get(), peakScratchBytes.get());
+    }
+}
@@ -0,0 +1,94 @@
+package de.viadee.discretizers4j;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Profile of a single fit, recorded if enabled by {@link AbstractDiscretizer#enableFitReport()}.
+ * <p>
+ * Holds the time spent in each phase of the fit, in the order the phases were entered, and counters of the work done
+ * by the supervised algorithms. Phases are e.g. "sort", "column", "equalClassSplit", "splitSearch",
+ * "candidateScoring", "merge" and "compile".
+ */
+public final class FitReport {
+    private final Map<String, Long> phaseNanos;
+    private final long totalNanos;
+    private final long candidatesEvaluated;
+    private final long intervalsBuilt;
+    private final long iterations;
+    private final int recursionDepth;
+    private final long peakScratchBytes;
+
+    FitReport(Map<String, Long> phaseNanos, long totalNanos, long candidatesEvaluated, long intervalsBuilt,
+              long iterations, int recursionDepth, long peakScratchBytes) {
+        this.phaseNanos = Collections.unmodifiableMap(new LinkedHashMap<>(phaseNanos));
+        this.totalNanos = totalNanos;
+        this.candidatesEvaluated = candidatesEvaluated;
+        this.intervalsBuilt = intervalsBuilt;
+        this.iterations = iterations;
+        this.recursionDepth = recursionDepth;
+        this.peakScratchBytes = peakScratchBytes;
+    }
+
+    /**
+     * @return the nanoseconds spent per phase, in the order the phases were entered
+     */
+    public Map<String, Long> getPhaseNanos() {
+        return phaseNanos;
+    }
+
+    /**
+     * @return the nanoseconds from entering the first phase to leaving the last one
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return the number of tentative cut points or merges scored
+     */
+    public long getCandidatesEvaluated() {
+        return candidatesEvaluated;
+    }
+
+    /**
+     * @return the number of intervals created while searching: the initial ones plus two per split and one per merge
+     */
+    public long getIntervalsBuilt() {
+        return intervalsBuilt;
+    }
+
+    /**
+     * @return the number of splits or merges accepted
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the deepest level of recursive splitting, 0 for algorithms not splitting recursively
+     */
+    public int getRecursionDepth() {
+        return recursionDepth;
+    }
+
+    /**
+     * @return estimate of the largest number of bytes held by primitive working arrays at once, not counting the
+     * input
+     */
+    public long getPeakScratchBytes() {
+        return peakScratchBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "FitReport{phaseNanos=" + phaseNanos +
+                ", totalNanos=" + totalNanos +
+                ", candidatesEvaluated=" + candidatesEvaluated +
+                ", intervalsBuilt=" + intervalsBuilt +
+                ", iterations=" + iterations +
+                ", recursionDepth=" + recursionDepth +
+                ", peakScratchBytes=" + peakScratchBytes + '}';
+    }
+}
@@ -0,0 +1,30 @@
+package de.viadee.discretizers4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Discretizer restored from the transitions of a fitted discretizer, e.g. when loading a model.
+ * <p>
+ * Applies values exactly as the discretizer the transitions were taken from. It cannot be fitted again.
+ */
+public class FittedDiscretizer extends AbstractDiscretizer {
+
+    /**
+     * Constructs the instance
+     *
+     * @param transitions the transitions, in the order of {@link Discretizer#getTransitions()} of the original
+     */
+    public FittedDiscretizer(List<DiscretizationTransition> transitions) {
+        super(false);
+        if (transitions == null || transitions.isEmpty()) {
+            throw new IllegalArgumentException("No transitions passed");
+        }
+        setDiscretizationTransitions(new ArrayList<>(transitions));
+    }
+
+    @Override
+    protected List<DiscretizationTransition> fitCreateTransitions(SortedColumn column) {
+        throw new IllegalArgumentException("Discretizer has already been fitted");
+    }
+}
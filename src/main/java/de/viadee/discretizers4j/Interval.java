@@ -1,12 +1,12 @@
 package de.viadee.discretizers4j;
 
 import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.IntStream;
 
 /**
- * Interval class for Discretization methods with begin and end index to determine class distribution
- * can be transformed to DiscretizerTransitions
+ * Interval class for Discretization methods with begin and end run of a {@link SupervisedColumn} to determine class
+ * distribution can be transformed to DiscretizerTransitions
  */
 public final class Interval {
 
@@ -16,27 +16,57 @@ public final class Interval {
     private final int size;
     private final int[] classDist;
 
+    private Interval(int begin, int end, int size, int[] classDist) {
+        this.classDist = classDist;
+        this.begin = begin;
+        this.end = end;
+        this.size = size;
+    }
+
     /**
      * @param begin         begin index of Interval
      * @param end           end index of Interval
      * @param keyValuePairs list of all values, only used to determine class distribution in interval
+     * @deprecated intervals refer to runs of a {@link SupervisedColumn}, use {@link #of(int, int, ClassHistogram)}
      */
+    @Deprecated
     public Interval(int begin, int end, List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs) {
-        Double[] targetValues = keyValuePairs.stream().map(AbstractMap.SimpleImmutableEntry::getValue).sorted().distinct().toArray(Double[]::new);
+        final double[] targetValues = keyValuePairs.stream().mapToDouble(AbstractMap.SimpleImmutableEntry::getValue)
+                .sorted().distinct().toArray();
         this.classDist = new int[targetValues.length];
         this.begin = begin;
         this.end = end;
         this.size = end - begin + 1;
 
-        for (int t = 0; t < targetValues.length; t++) {
-            final int finalT = t;
-            classDist[t] = (int) IntStream.rangeClosed(begin, end)
-                    .mapToObj(i -> keyValuePairs.get(i).getValue())
-                    .filter(i -> Double.compare(i, targetValues[finalT]) == 0)
-                    .count();
+        for (int i = begin; i <= end; i++) {
+            classDist[Arrays.binarySearch(targetValues, keyValuePairs.get(i).getValue())]++;
         }
     }
 
+    /**
+     * Creates an interval, determining its class distribution in O(m)
+     *
+     * @param begin     first run of Interval
+     * @param end       last run of Interval, inclusive
+     * @param histogram the cumulative class counts of the column, used to determine class distribution in interval
+     * @return the interval
+     */
+    public static Interval of(int begin, int end, ClassHistogram histogram) {
+        return new Interval(begin, end, histogram.size(begin, end), histogram.classDistribution(begin, end));
+    }
+
+    /**
+     * Creates an interval covering the same values as an interval of runs, referring to the positions of its values
+     *
+     * @param begin position of the first value
+     * @param end   position of the last value, inclusive
+     * @param runs  the interval of runs
+     * @return the interval
+     */
+    static Interval ofPositions(int begin, int end, Interval runs) {
+        return new Interval(begin, end, runs.size, runs.classDist);
+    }
+
     public int getBegin() {
         return begin;
     }
@@ -49,6 +79,9 @@ public final class Interval {
         return classDist;
     }
 
+    /**
+     * @return the number of values in the interval
+     */
     public int getSize() {
         return size;
     }
@@ -6,10 +6,10 @@ import java.io.Serializable;
  * Represents a numeric discretization origin
  */
 public class NumericDiscretizationOrigin extends DiscretizationOrigin {
+    private final Number minValue;
     private final Number maxValue;
-    private Number minValue;
-    private boolean isFirst = false;
-    private boolean isLast = false;
+    private final boolean isFirst;
+    private final boolean isLast;
 
     /**
      * Constructs the instance
@@ -18,6 +18,18 @@ public class NumericDiscretizationOrigin extends DiscretizationOrigin {
      * @param maxValue range max value
      */
     public NumericDiscretizationOrigin(Number minValue, Number maxValue) {
+        this(minValue, maxValue, false, false);
+    }
+
+    /**
+     * Constructs the instance
+     *
+     * @param minValue range min value
+     * @param maxValue range max value
+     * @param isFirst  true, if the lower boundary is infinitely open
+     * @param isLast   true, if the upper boundary is infinitely open
+     */
+    public NumericDiscretizationOrigin(Number minValue, Number maxValue, boolean isFirst, boolean isLast) {
         super(DiscretizationType.NUMERIC);
         if (minValue == null || maxValue == null) {
             throw new IllegalArgumentException("Both min and max value must not be null");
@@ -30,6 +42,8 @@ public class NumericDiscretizationOrigin extends DiscretizationOrigin {
         }
         this.minValue = minValue;
         this.maxValue = maxValue;
+        this.isFirst = isFirst;
+        this.isLast = isLast;
     }
 
     @Override
@@ -56,13 +70,6 @@ public class NumericDiscretizationOrigin extends DiscretizationOrigin {
         return minValue;
     }
 
-    /**
-     * @param minValue the new min value
-     */
-    void setMinValue(Number minValue) {
-        this.minValue = minValue;
-    }
-
     /**
      * @return the max range value
      */
@@ -90,24 +97,10 @@ public class NumericDiscretizationOrigin extends DiscretizationOrigin {
         return isFirst;
     }
 
-    /**
-     * @param first true, if this is the first element and the lower boundary should be infinitely open
-     */
-    void setFirst(boolean first) {
-        isFirst = first;
-    }
-
     /**
      * @return is upper boundary open
      */
     public boolean isLast() {
         return isLast;
     }
-
-    /**
-     * @param last true, if this is the last element and the upper boundary should be infinitely open
-     */
-    void setLast(boolean last) {
-        isLast = last;
-    }
 }
@@ -0,0 +1,247 @@
+package de.viadee.discretizers4j;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiled form of a list of numeric {@link DiscretizationTransition}s, answering lookups by binary search.
+ * <p>
+ * All lower and upper boundaries of the transitions split the number line into segments. Each segment is mapped to
+ * the transition a linear scan over {@link NumericDiscretizationOrigin#canDiscretize(java.io.Serializable)} would have found
+ * first, so results are identical to querying the origins one after the other, open first and last bounds included.
+ * <p>
+ * If the cut points are spaced about equally, as for equal width bins, the segment is computed arithmetically instead
+ * and corrected by at most one step. Compiling checks that the estimate is never off by more, so results stay exact.
+ * <p>
+ * If the lowest and highest cut points are integers close to each other, as for columns of ages, hours or codes, the
+ * segment of each integer in between is stored in a dense table. Integral values within the table are looked up
+ * directly, all others are searched.
+ */
+final class NumericTransitionIndex {
+    private static final int NO_TRANSITION = -1;
+    private static final int DENSE_TABLE_SIZE_LIMIT = 1 << 12;
+
+    private final double[] cutPoints;
+    private final int[] segmentTransitions;
+    private final double[] segmentValues;
+    private final int nanTransition;
+    private final double nanValue;
+    private final double inverseCutPointDistance;
+    private final int denseOffset;
+    private final int[] denseSegments;
+
+    private NumericTransitionIndex(double[] cutPoints, int[] segmentTransitions, double[] segmentValues,
+                                   int nanTransition, double nanValue) {
+        this.cutPoints = cutPoints;
+        this.segmentTransitions = segmentTransitions;
+        this.segmentValues = segmentValues;
+        this.nanTransition = nanTransition;
+        this.nanValue = nanValue;
+        this.inverseCutPointDistance = determineInverseCutPointDistance(cutPoints);
+
+        if (hasNarrowIntegralDomain(cutPoints)) {
+            this.denseOffset = (int) cutPoints[0];
+            this.denseSegments = new int[(int) (cutPoints[cutPoints.length - 1] - cutPoints[0]) + 1];
+            for (int i = 0; i < denseSegments.length; i++) {
+                denseSegments[i] = searchSegment(cutPoints, inverseCutPointDistance, denseOffset + i);
+            }
+        } else {
+            this.denseOffset = 0;
+            this.denseSegments = null;
+        }
+    }
+
+    /**
+     * @return true, if the lowest and highest cut points are integers spanning a dense table of limited size
+     */
+    private static boolean hasNarrowIntegralDomain(double[] cutPoints) {
+        if (cutPoints.length == 0) {
+            return false;
+        }
+        final double lowest = cutPoints[0];
+        final double highest = cutPoints[cutPoints.length - 1];
+        return lowest == (int) lowest && highest == (int) highest && highest - lowest < DENSE_TABLE_SIZE_LIMIT;
+    }
+
+    /**
+     * @return the inverse of the mean distance of the cut points, if it estimates every segment off by one at most.
+     * NaN otherwise
+     */
+    private static double determineInverseCutPointDistance(double[] cutPoints) {
+        if (cutPoints.length < 3) {
+            return Double.NaN;
+        }
+        final double inverseCutPointDistance = (cutPoints.length - 1)
+                / (cutPoints[cutPoints.length - 1] - cutPoints[0]);
+        if (Double.isNaN(inverseCutPointDistance) || Double.isInfinite(inverseCutPointDistance)
+                || inverseCutPointDistance <= 0) {
+            return Double.NaN;
+        }
+
+        // The estimate and the segment both grow monotonically with the value. So checking the values where the
+        // segment changes, i.e. each cut point and the value right below it, bounds the error for all values
+        for (int i = 0; i < cutPoints.length; i++) {
+            if (Math.abs(estimateSegment(cutPoints, inverseCutPointDistance, cutPoints[i]) - (i + 1)) > 1
+                    || Math.abs(estimateSegment(cutPoints, inverseCutPointDistance, Math.nextDown(cutPoints[i])) - i) > 1) {
+                return Double.NaN;
+            }
+        }
+        return inverseCutPointDistance;
+    }
+
+    private static int estimateSegment(double[] cutPoints, double inverseCutPointDistance, double value) {
+        final double position = (value - cutPoints[0]) * inverseCutPointDistance + 1D;
+        return (int) Math.max(0D, Math.min(position, cutPoints.length));
+    }
+
+    /**
+     * Compiles the transitions
+     *
+     * @param transitions the fitted transitions, in lookup order
+     * @return the compiled index or null, if not all origins are numeric
+     */
+    static NumericTransitionIndex compile(List<DiscretizationTransition> transitions) {
+        final int transitionCount = transitions.size();
+        final NumericDiscretizationOrigin[] origins = new NumericDiscretizationOrigin[transitionCount];
+        final double[] boundaries = new double[2 * transitionCount];
+        for (int i = 0; i < transitionCount; i++) {
+            final DiscretizationOrigin origin = transitions.get(i).getDiscretizationOrigin();
+            if (!(origin instanceof NumericDiscretizationOrigin)) {
+                return null;
+            }
+            origins[i] = (NumericDiscretizationOrigin) origin;
+            boundaries[2 * i] = origins[i].getMinValue().doubleValue();
+            boundaries[2 * i + 1] = origins[i].getMaxValue().doubleValue();
+            if (Double.isNaN(boundaries[2 * i]) || Double.isNaN(boundaries[2 * i + 1])) {
+                // NaN boundaries do not order, leave these to the origins themselves
+                return null;
+            }
+        }
+
+        final double[] cutPoints = distinctSorted(boundaries);
+        final int[] segmentTransitions = new int[cutPoints.length + 1];
+        Arrays.fill(segmentTransitions, NO_TRANSITION);
+
+        // Paint segments in reverse order, so earlier transitions win where origins overlap
+        int nanTransition = NO_TRANSITION;
+        for (int i = transitionCount - 1; i >= 0; i--) {
+            final NumericDiscretizationOrigin origin = origins[i];
+            final int fromSegment = origin.isFirst() ? 0 : indexOf(cutPoints, origin.getMinValue().doubleValue()) + 1;
+            final int toSegment = origin.isLast() ? segmentTransitions.length
+                    : indexOf(cutPoints, origin.getMaxValue().doubleValue()) + 1;
+            if (fromSegment < toSegment) {
+                Arrays.fill(segmentTransitions, fromSegment, toSegment, i);
+            }
+            if (origin.isFirst() && origin.isLast()) {
+                nanTransition = i;
+            }
+        }
+
+        final double[] segmentValues = new double[segmentTransitions.length];
+        for (int segment = 0; segment < segmentTransitions.length; segment++) {
+            segmentValues[segment] = (segmentTransitions[segment] == NO_TRANSITION) ? Double.NaN
+                    : transitions.get(segmentTransitions[segment]).getDiscretizedValue();
+        }
+
+        // NaN fails all comparisons, so only an origin open to both sides matches it
+        final double nanValue = (nanTransition == NO_TRANSITION) ? Double.NaN
+                : transitions.get(nanTransition).getDiscretizedValue();
+
+        return new NumericTransitionIndex(cutPoints, segmentTransitions, segmentValues, nanTransition, nanValue);
+    }
+
+    /**
+     * Looks up the transition a value belongs to
+     *
+     * @param value the value to be discretized
+     * @return the index of the matching transition or a negative value, if there is none
+     */
+    int transitionIndexOf(double value) {
+        if (Double.isNaN(value)) {
+            return nanTransition;
+        }
+        return segmentTransitions[segmentOf(value)];
+    }
+
+    /**
+     * Returns the discretized value
+     *
+     * @param value the value to be discretized
+     * @return the discretized value or NaN, if no transition matches
+     */
+    double discretize(double value) {
+        if (Double.isNaN(value)) {
+            return nanValue;
+        }
+        return segmentValues[segmentOf(value)];
+    }
+
+    /**
+     * @param value a non-NaN value
+     * @return the number of cut points less than or equal to value
+     */
+    private int segmentOf(double value) {
+        if (denseSegments != null) {
+            final int integer = (int) value;
+            final int denseIndex = integer - denseOffset;
+            if (integer == value && denseIndex >= 0 && denseIndex < denseSegments.length) {
+                return denseSegments[denseIndex];
+            }
+        }
+        return searchSegment(cutPoints, inverseCutPointDistance, value);
+    }
+
+    /**
+     * @param value a non-NaN value
+     * @return the number of cut points less than or equal to value
+     */
+    private static int searchSegment(double[] cutPoints, double inverseCutPointDistance, double value) {
+        if (!Double.isNaN(inverseCutPointDistance)) {
+            int segment = estimateSegment(cutPoints, inverseCutPointDistance, value);
+            segment -= (segment > 0 && value < cutPoints[segment - 1]) ? 1 : 0;
+            segment += (segment < cutPoints.length && cutPoints[segment] <= value) ? 1 : 0;
+            return segment;
+        }
+
+        int low = 0;
+        int high = cutPoints.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (cutPoints[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double[] distinctSorted(double[] values) {
+        final double[] sorted = Arrays.copyOf(values, values.length);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (double value : sorted) {
+            // Primitive comparison, as used by the origins: -0.0 and 0.0 are one cut point
+            if (distinct == 0 || value != sorted[distinct - 1]) {
+                sorted[distinct++] = value;
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static int indexOf(double[] cutPoints, double value) {
+        int low = 0;
+        int high = cutPoints.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (cutPoints[mid] < value) {
+                low = mid + 1;
+            } else if (cutPoints[mid] > value) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        throw new IllegalStateException("Boundary " + value + " is not a cut point");
+    }
+}
@@ -0,0 +1,115 @@
+package de.viadee.discretizers4j;
+
+import java.util.Arrays;
+
+/**
+ * Selection of several order statistics of a column without sorting it completely.
+ * <p>
+ * A multi-quickselect partitions the values around a pivot and only descends into the parts holding a requested rank,
+ * taking expected O(n log k) time for k ranks. Values are ordered as by {@link Double#compare}, like
+ * {@link Arrays#sort(double[])}, so the results equal those of reading the ranks of the sorted column.
+ */
+public final class OrderStatistics {
+    private static final int SORT_THRESHOLD = 32;
+
+    private OrderStatistics() {
+    }
+
+    /**
+     * Determines the values at several ranks of the sorted column
+     *
+     * @param values the values, reordered in place
+     * @param ranks  0-based ranks, in [0, values.length)
+     * @return the value at each rank
+     */
+    public static double[] select(double[] values, int[] ranks) {
+        for (int rank : ranks) {
+            if (rank < 0 || rank >= values.length) {
+                throw new IllegalArgumentException("Rank " + rank + " is out of range");
+            }
+        }
+        final int[] sortedRanks = Arrays.stream(ranks).sorted().distinct().toArray();
+        if (sortedRanks.length > 0) {
+            // Falls back to sorting on unfortunate pivots, bounding the worst case by O(n log n)
+            final int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(values.length));
+            select(values, 0, values.length - 1, sortedRanks, 0, sortedRanks.length - 1, depthLimit);
+        }
+
+        final double[] result = new double[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            result[i] = values[ranks[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Places the values at ranks[rankBegin..rankEnd] at their sorted positions, all of them within [begin, end]
+     */
+    private static void select(double[] values, int begin, int end, int[] ranks, int rankBegin, int rankEnd,
+                               int depthLimit) {
+        while (rankBegin <= rankEnd) {
+            if (end - begin < SORT_THRESHOLD || depthLimit == 0) {
+                Arrays.sort(values, begin, end + 1);
+                return;
+            }
+            depthLimit--;
+
+            // Three-way partition: [begin, less) < pivot, [less, greater] == pivot, (greater, end] > pivot
+            final double pivot = medianOfThree(values[begin], values[(begin + end) >>> 1], values[end]);
+            int less = begin;
+            int greater = end;
+            int i = begin;
+            while (i <= greater) {
+                final int comparison = Double.compare(values[i], pivot);
+                if (comparison < 0) {
+                    swap(values, less++, i++);
+                } else if (comparison > 0) {
+                    swap(values, i, greater--);
+                } else {
+                    i++;
+                }
+            }
+
+            final int leftRankEnd = firstRankNotBelow(ranks, rankBegin, rankEnd, less) - 1;
+            final int rightRankBegin = firstRankNotBelow(ranks, leftRankEnd + 1, rankEnd, greater + 1);
+            select(values, begin, less - 1, ranks, rankBegin, leftRankEnd, depthLimit);
+            begin = greater + 1;
+            rankBegin = rightRankBegin;
+        }
+    }
+
+    /**
+     * @return the first position in [from, to] whose rank is not below bound, or to + 1
+     */
+    private static int firstRankNotBelow(int[] ranks, int from, int to, int bound) {
+        int low = from;
+        int high = to + 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (ranks[mid] < bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double medianOfThree(double a, double b, double c) {
+        if (Double.compare(a, b) > 0) {
+            final double swap = a;
+            a = b;
+            b = swap;
+        }
+        if (Double.compare(b, c) > 0) {
+            b = c;
+        }
+        return (Double.compare(a, b) > 0) ? a : b;
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        final double swap = values[i];
+        values[i] = values[j];
+        values[j] = swap;
+    }
+}
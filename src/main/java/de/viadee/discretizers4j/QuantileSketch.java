@@ -0,0 +1,249 @@
+package de.viadee.discretizers4j;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Mergeable summary of a numeric column in bounded memory, answering approximate rank queries.
+ * <p>
+ * Values are collected in levels of a fixed capacity k. A value on level h stands for 2^h values of the column. Once a
+ * level is full, it is sorted and every other value is promoted to the next level, alternating between the odd and
+ * even positions. This is the compactor scheme of KLL sketches, without randomness, so sketches are reproducible.
+ * <p>
+ * A compaction on level h shifts the rank of any value by at most 2^h. The sum over all compactions is tracked, so
+ * {@link #getRankErrorBound()} is a guaranteed bound, not an estimate. It grows roughly like n / k * log2(n / k), i.e.
+ * {@link #getNormalizedRankErrorBound()} like log2(n / k) / k. Memory is O(k * log2(n / k)).
+ * <p>
+ * Sketches of separate shards of a column can be merged, the bound of the result covers both.
+ */
+public final class QuantileSketch implements Serializable {
+    private static final long serialVersionUID = -1409846237151806338L;
+
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private final int capacity;
+    private double[][] levels = new double[0][];
+    private int[] levelSizes = new int[0];
+    private boolean[] levelOffsets = new boolean[0];
+    private long count;
+    private long rankErrorBound;
+    private double minValue = Double.POSITIVE_INFINITY;
+    private double maxValue = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a sketch with a level capacity of 4096, having a normalized rank error below 0.5% for a billion values
+     */
+    public QuantileSketch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a sketch
+     *
+     * @param capacity number of values per level, even and at least 2. The error decreases linearly with it
+     */
+    public QuantileSketch(int capacity) {
+        if (capacity < 2 || capacity % 2 != 0) {
+            throw new IllegalArgumentException("Capacity needs to be an even number of at least 2");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a value
+     *
+     * @param value the value, must not be NaN
+     */
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("NaN values cannot be sketched");
+        }
+        ensureLevel(0);
+        append(0, value);
+        count++;
+        minValue = Math.min(minValue, value);
+        maxValue = Math.max(maxValue, value);
+        compact(0);
+    }
+
+    /**
+     * Adds values
+     *
+     * @param values the values, must not be NaN
+     */
+    public void update(double[] values) {
+        for (double value : values) {
+            update(value);
+        }
+    }
+
+    /**
+     * Adds all values summarized by another sketch, e.g. built on another shard of the column
+     *
+     * @param other sketch of the same capacity, left untouched
+     */
+    public void merge(QuantileSketch other) {
+        if (other.capacity != capacity) {
+            throw new IllegalArgumentException("Only sketches of the same capacity can be merged");
+        }
+        if (other == this) {
+            throw new IllegalArgumentException("A sketch cannot be merged with itself");
+        }
+        ensureLevel(other.levels.length - 1);
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.levelSizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        rankErrorBound += other.rankErrorBound;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+        for (int h = 0; h < levels.length; h++) {
+            compact(h);
+        }
+    }
+
+    /**
+     * @return the number of values added
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the exact minimum of all values added
+     */
+    public double getMinValue() {
+        checkNotEmpty();
+        return minValue;
+    }
+
+    /**
+     * @return the exact maximum of all values added
+     */
+    public double getMaxValue() {
+        checkNotEmpty();
+        return maxValue;
+    }
+
+    /**
+     * @return the maximum number of positions the rank of any value may be off by. 0 while no compaction took place
+     */
+    public long getRankErrorBound() {
+        return rankErrorBound;
+    }
+
+    /**
+     * @return the rank error bound relative to the number of values
+     */
+    public double getNormalizedRankErrorBound() {
+        return (count == 0) ? 0D : rankErrorBound / (double) count;
+    }
+
+    /**
+     * Determines the values at several ranks of the sorted column.
+     * <p>
+     * The true rank of each returned value is off by at most {@link #getRankErrorBound()}. Ranks are exact as long as
+     * fewer than capacity values have been added, adding the capacity-th value compacts the first level.
+     *
+     * @param ranks 0-based ranks, in [0, count)
+     * @return the value at each rank
+     */
+    public double[] getValuesAtRanks(long[] ranks) {
+        checkNotEmpty();
+        final double[][] sortedLevels = new double[levels.length][];
+        int retained = 0;
+        for (int h = 0; h < levels.length; h++) {
+            sortedLevels[h] = Arrays.copyOf(levels[h], levelSizes[h]);
+            Arrays.sort(sortedLevels[h]);
+            retained += levelSizes[h];
+        }
+
+        // Merges the sorted levels, a value on level h weighing 2^h
+        final double[] values = new double[retained];
+        final long[] cumulativeWeights = new long[retained];
+        final int[] next = new int[levels.length];
+        long cumulativeWeight = 0;
+        for (int i = 0; i < retained; i++) {
+            int lowest = -1;
+            for (int h = 0; h < levels.length; h++) {
+                if (next[h] < sortedLevels[h].length && (lowest < 0
+                        || Double.compare(sortedLevels[h][next[h]], sortedLevels[lowest][next[lowest]]) < 0)) {
+                    lowest = h;
+                }
+            }
+            values[i] = sortedLevels[lowest][next[lowest]++];
+            cumulativeWeight += 1L << lowest;
+            cumulativeWeights[i] = cumulativeWeight;
+        }
+
+        final double[] result = new double[ranks.length];
+        for (int r = 0; r < ranks.length; r++) {
+            if (ranks[r] < 0 || ranks[r] >= count) {
+                throw new IllegalArgumentException("Rank " + ranks[r] + " is out of range");
+            }
+            // The first value whose cumulative weight exceeds the rank
+            int low = 0;
+            int high = retained - 1;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (cumulativeWeights[middle] > ranks[r]) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            result[r] = values[low];
+        }
+        return result;
+    }
+
+    private void checkNotEmpty() {
+        if (count == 0) {
+            throw new IllegalArgumentException("Sketch is empty");
+        }
+    }
+
+    private void ensureLevel(int level) {
+        if (level < levels.length) {
+            return;
+        }
+        final int previousLength = levels.length;
+        levels = Arrays.copyOf(levels, level + 1);
+        levelSizes = Arrays.copyOf(levelSizes, level + 1);
+        levelOffsets = Arrays.copyOf(levelOffsets, level + 1);
+        for (int h = previousLength; h <= level; h++) {
+            levels[h] = new double[capacity];
+        }
+    }
+
+    private void append(int level, double value) {
+        if (levelSizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], 2 * levels[level].length);
+        }
+        levels[level][levelSizes[level]++] = value;
+    }
+
+    /**
+     * Promotes every other value of a full level to the next one, cascading upwards
+     */
+    private void compact(int level) {
+        for (int h = level; h < levels.length && levelSizes[h] >= capacity; h++) {
+            final double[] buffer = levels[h];
+            final int size = levelSizes[h];
+            Arrays.sort(buffer, 0, size);
+
+            // An odd value out stays on this level
+            final int compacted = size & ~1;
+            ensureLevel(h + 1);
+            for (int i = levelOffsets[h] ? 1 : 0; i < compacted; i += 2) {
+                append(h + 1, buffer[i]);
+            }
+            buffer[0] = buffer[size - 1];
+            levelSizes[h] = size - compacted;
+            levelOffsets[h] = !levelOffsets[h];
+            rankErrorBound += 1L << h;
+        }
+    }
+}
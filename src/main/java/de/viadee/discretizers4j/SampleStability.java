@@ -0,0 +1,173 @@
+package de.viadee.discretizers4j;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Diagnostics of how much the cut points of a discretizer vary between fits on several samples of a column, to tell
+ * whether a sample size suffices.
+ * <p>
+ * Each resample is drawn with its own seed and fitted by a fresh discretizer. Cut points are compared by their
+ * quantile, i.e. the share of the pooled resamples' values below them, so displacements do not depend on the scale
+ * of the column. Only numeric cut points are compared.
+ */
+public final class SampleStability {
+    private final double[][] cutPointQuantiles;
+    private final double maxDisplacement;
+    private final double meanDisplacement;
+
+    private SampleStability(double[][] cutPointQuantiles) {
+        this.cutPointQuantiles = cutPointQuantiles;
+
+        double max = 0;
+        double sum = 0;
+        long count = 0;
+        for (int r = 0; r < cutPointQuantiles.length; r++) {
+            for (int s = 0; s < cutPointQuantiles.length; s++) {
+                if (r == s) {
+                    continue;
+                }
+                for (double quantile : cutPointQuantiles[r]) {
+                    final double displacement = distanceToNearest(quantile, cutPointQuantiles[s]);
+                    max = Math.max(max, displacement);
+                    sum += displacement;
+                    count++;
+                }
+            }
+        }
+        this.maxDisplacement = max;
+        this.meanDisplacement = (count == 0) ? 0D : sum / count;
+    }
+
+    /**
+     * Fits discretizers on several resamples of the column and compares their cut points. Unsupervised discretizers
+     * are fitted on reservoir samples, supervised ones on stratified samples.
+     *
+     * @param discretizers supplier of unfitted discretizers of the configuration to check
+     * @param values       the column, left untouched
+     * @param classIndices the class index of each value, or null for unsupervised discretizers
+     * @param sampleSize   the sample size to check
+     * @param seed         the seed of the first resample, the following ones use the next seeds
+     * @param resamples    the number of resamples, at least 2
+     * @return the diagnostics
+     */
+    public static SampleStability of(Supplier<? extends AbstractDiscretizer> discretizers, double[] values,
+                                     int[] classIndices, int sampleSize, long seed, int resamples) {
+        if (resamples < 2) {
+            throw new IllegalArgumentException("At least two resamples are needed to compare cut points");
+        }
+
+        final ColumnSample[] samples = new ColumnSample[resamples];
+        final double[][] cutPoints = new double[resamples][];
+        int pooledSize = 0;
+        for (int r = 0; r < resamples; r++) {
+            samples[r] = (classIndices == null)
+                    ? ColumnSample.reservoir(values, sampleSize, seed + r)
+                    : ColumnSample.stratified(values, classIndices, sampleSize, seed + r);
+            final AbstractDiscretizer discretizer = discretizers.get();
+            discretizer.fit(samples[r]);
+            cutPoints[r] = cutPointsOf(discretizer);
+            pooledSize += samples[r].size();
+        }
+
+        final double[] pooled = new double[pooledSize];
+        int position = 0;
+        for (ColumnSample sample : samples) {
+            System.arraycopy(sample.getValues(), 0, pooled, position, sample.size());
+            position += sample.size();
+        }
+        Arrays.sort(pooled);
+
+        final double[][] cutPointQuantiles = new double[resamples][];
+        for (int r = 0; r < resamples; r++) {
+            cutPointQuantiles[r] = new double[cutPoints[r].length];
+            for (int c = 0; c < cutPoints[r].length; c++) {
+                cutPointQuantiles[r][c] = countBelow(pooled, cutPoints[r][c]) / (double) pooled.length;
+            }
+        }
+        return new SampleStability(cutPointQuantiles);
+    }
+
+    /**
+     * @return the lower boundaries of all numeric transitions but the first one, ascending
+     */
+    private static double[] cutPointsOf(AbstractDiscretizer discretizer) {
+        final double[] lowerBoundaries = discretizer.getTransitions().stream()
+                .map(DiscretizationTransition::getDiscretizationOrigin)
+                .filter(origin -> origin instanceof NumericDiscretizationOrigin)
+                .mapToDouble(origin -> ((NumericDiscretizationOrigin) origin).getMinValue().doubleValue())
+                .sorted().distinct().toArray();
+        return (lowerBoundaries.length == 0) ? lowerBoundaries : Arrays.copyOfRange(lowerBoundaries, 1,
+                lowerBoundaries.length);
+    }
+
+    private static int countBelow(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the distance to the nearest of the quantiles, 1 if there is none
+     */
+    private static double distanceToNearest(double quantile, double[] quantiles) {
+        double distance = 1;
+        for (double other : quantiles) {
+            distance = Math.min(distance, Math.abs(quantile - other));
+        }
+        return distance;
+    }
+
+    /**
+     * @return the number of resamples fitted
+     */
+    public int getResampleCount() {
+        return cutPointQuantiles.length;
+    }
+
+    /**
+     * @return the number of cut points of each resample's fit
+     */
+    public int[] getCutPointCounts() {
+        return Arrays.stream(cutPointQuantiles).mapToInt(quantiles -> quantiles.length).toArray();
+    }
+
+    /**
+     * @param resample the resample, in [0, {@link #getResampleCount()})
+     * @return the quantiles of the resample's cut points, ascending
+     */
+    public double[] getCutPointQuantiles(int resample) {
+        return cutPointQuantiles[resample].clone();
+    }
+
+    /**
+     * @return the largest distance, in quantiles, between a cut point of one resample and the nearest cut point of
+     * another one. 1, if a resample has cut points and another one has none
+     */
+    public double getMaxQuantileDisplacement() {
+        return maxDisplacement;
+    }
+
+    /**
+     * @return the mean distance, in quantiles, between a cut point of one resample and the nearest cut point of another
+     * one
+     */
+    public double getMeanQuantileDisplacement() {
+        return meanDisplacement;
+    }
+
+    @Override
+    public String toString() {
+        return "SampleStability{cutPointCounts=" + Arrays.toString(getCutPointCounts()) +
+                ", maxQuantileDisplacement=" + maxDisplacement +
+                ", meanQuantileDisplacement=" + meanDisplacement + '}';
+    }
+}
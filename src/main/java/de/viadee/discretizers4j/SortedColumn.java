@@ -0,0 +1,386 @@
+package de.viadee.discretizers4j;
+
+import java.util.Arrays;
+
+/**
+ * Primitive, sorted copy of a numeric column, to be sorted once and fitted on by any number of discretizers.
+ * <p>
+ * The column is held as runs of equal values, each with the number of values it holds. The permutation mapping each
+ * sorted position to the original one, so labels can be moved along without sorting again, is only built once labels
+ * need it, as unsupervised discretizers depend on the runs alone. Until then the column keeps a copy of the values in
+ * their original order. Equal values keep the order they were passed in. Values are ordered as by
+ * {@link Double#compare}, i.e. NaN values come last.
+ * <p>
+ * Columns built from pre-aggregated counts by {@link #ofCounts(double[], int[])} behave like the expanded column,
+ * but have no original positions.
+ */
+public final class SortedColumn {
+    private static final int INSERTION_SORT_SIZE = 32;
+
+    private final double[] runValues;
+    /** First sorted position of each run, followed by the number of values */
+    private final int[] runStarts;
+    private final boolean counted;
+    /** Null until built from the unsorted values */
+    private volatile int[] originalIndices;
+    /** Null once the original indices have been built or if they cannot be */
+    private double[] unsortedValues;
+
+    private SortedColumn(double[] runValues, int[] runStarts, boolean counted, int[] originalIndices,
+                         double[] unsortedValues) {
+        this.runValues = runValues;
+        this.runStarts = runStarts;
+        this.counted = counted;
+        this.originalIndices = originalIndices;
+        this.unsortedValues = unsortedValues;
+    }
+
+    /**
+     * Sorts a column
+     *
+     * @param values the values, left untouched
+     * @return the sorted column
+     */
+    public static SortedColumn of(double[] values) {
+        checkNotEmpty(values);
+        final double[] sortedValues = Arrays.copyOf(values, values.length);
+        Arrays.sort(sortedValues);
+        return ofSorted(sortedValues, null, Arrays.copyOf(values, values.length));
+    }
+
+    /**
+     * Sorts a column along with its original positions, for columns labels are moved along with right away
+     *
+     * @param values the values, left untouched
+     * @return the sorted column
+     */
+    static SortedColumn withOriginalIndices(double[] values) {
+        checkNotEmpty(values);
+        final double[] sortedValues = Arrays.copyOf(values, values.length);
+        final int[] originalIndices = identity(values.length);
+        sortStably(sortedValues, originalIndices);
+        return ofSorted(sortedValues, originalIndices, null);
+    }
+
+    /**
+     * Sorts a column in place, without its original positions
+     *
+     * @param values the values, reordered
+     * @return the sorted column
+     */
+    static SortedColumn sortInPlace(double[] values) {
+        checkNotEmpty(values);
+        Arrays.sort(values);
+        return ofSorted(values, null, null);
+    }
+
+    private static void checkNotEmpty(double[] values) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+    }
+
+    private static SortedColumn ofSorted(double[] sortedValues, int[] originalIndices, double[] unsortedValues) {
+        int runCount = 1;
+        for (int i = 1; i < sortedValues.length; i++) {
+            if (Double.compare(sortedValues[i], sortedValues[i - 1]) != 0) {
+                runCount++;
+            }
+        }
+        final double[] runValues = new double[runCount];
+        final int[] runStarts = new int[runCount + 1];
+        runValues[0] = sortedValues[0];
+        for (int i = 1, run = 1; i < sortedValues.length; i++) {
+            if (Double.compare(sortedValues[i], sortedValues[i - 1]) != 0) {
+                runValues[run] = sortedValues[i];
+                runStarts[run++] = i;
+            }
+        }
+        runStarts[runCount] = sortedValues.length;
+
+        return new SortedColumn(runValues, runStarts, false, originalIndices, unsortedValues);
+    }
+
+    /**
+     * Sorts a pre-aggregated column, holding each value as often as its count, without expanding it
+     *
+     * @param values the values, left untouched. Equal values may occur several times, their counts add up
+     * @param counts the number of occurrences of each value, not negative
+     * @return the sorted column
+     */
+    public static SortedColumn ofCounts(double[] values, int[] counts) {
+        if (values == null || counts == null || values.length != counts.length) {
+            throw new IllegalArgumentException("Counts need to be of same length as column values");
+        }
+        final int[] runClassCounts = new int[values.length];
+        final double[] runValues = aggregate(values, new int[values.length], counts, runClassCounts, 1);
+        final int[] runStarts = new int[runValues.length + 1];
+        for (int run = 0; run < runValues.length; run++) {
+            runStarts[run + 1] = runStarts[run] + runClassCounts[run];
+        }
+        return new SortedColumn(runValues, runStarts, true, null, null);
+    }
+
+    /**
+     * Sorts pre-aggregated records and adds up the counts of equal values per class
+     *
+     * @param values         the values of the records, left untouched
+     * @param classIndices   the class index of each record, in [0, classCount)
+     * @param counts         the number of occurrences of each record
+     * @param runClassCounts array of at least values.length * classCount elements the counts of each distinct value
+     *                       are written to, classCount consecutive counts per value
+     * @param classCount     the number of classes
+     * @return the distinct values, ascending
+     */
+    static double[] aggregate(double[] values, int[] classIndices, int[] counts, int[] runClassCounts,
+                              int classCount) {
+        long total = 0;
+        for (int count : counts) {
+            if (count < 0) {
+                throw new IllegalArgumentException("Counts must not be negative, got " + count);
+            }
+            total += count;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many values to fit on, " + total);
+        }
+
+        final double[] sortedValues = Arrays.copyOf(values, values.length);
+        final int[] originalIndices = identity(values.length);
+        sortStably(sortedValues, originalIndices);
+
+        int run = -1;
+        for (int i = 0; i < sortedValues.length; i++) {
+            final int original = originalIndices[i];
+            if (counts[original] == 0) {
+                continue;
+            }
+            if (run < 0 || Double.compare(sortedValues[i], sortedValues[run]) != 0) {
+                sortedValues[++run] = sortedValues[i];
+            }
+            runClassCounts[run * classCount + classIndices[original]] += counts[original];
+        }
+        return Arrays.copyOf(sortedValues, run + 1);
+    }
+
+    private static int[] identity(int size) {
+        final int[] indices = new int[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * Estimates the memory sorting takes besides the input: the sorted values and their original positions, merge
+     * buffers of both and the runs in the worst case
+     *
+     * @param size the number of values
+     * @return the estimated number of bytes
+     */
+    static long sortScratchBytes(int size) {
+        return 36L * size;
+    }
+
+    /**
+     * Estimates the memory {@link #sortInPlace(double[])} takes besides the input: the runs in the worst case
+     *
+     * @param size the number of values
+     * @return the estimated number of bytes
+     */
+    static long inPlaceSortScratchBytes(int size) {
+        return 12L * size;
+    }
+
+    /**
+     * Sorts the values and moves the indices along, keeping the order of equal values. A bottom-up merge sort over
+     * both primitive arrays, merging blocks sorted by insertion sort.
+     */
+    private static void sortStably(double[] values, int[] indices) {
+        final int size = values.length;
+        for (int begin = 0; begin < size; begin += INSERTION_SORT_SIZE) {
+            insertionSort(values, indices, begin, Math.min(begin + INSERTION_SORT_SIZE, size));
+        }
+
+        double[] sourceValues = values;
+        int[] sourceIndices = indices;
+        double[] targetValues = new double[size];
+        int[] targetIndices = new int[size];
+        for (long width = INSERTION_SORT_SIZE; width < size; width *= 2) {
+            for (long begin = 0; begin < size; begin += 2 * width) {
+                final int middle = (int) Math.min(begin + width, size);
+                final int end = (int) Math.min(begin + 2 * width, size);
+                merge(sourceValues, sourceIndices, (int) begin, middle, end, targetValues, targetIndices);
+            }
+            final double[] swapValues = sourceValues;
+            sourceValues = targetValues;
+            targetValues = swapValues;
+            final int[] swapIndices = sourceIndices;
+            sourceIndices = targetIndices;
+            targetIndices = swapIndices;
+        }
+        if (sourceValues != values) {
+            System.arraycopy(sourceValues, 0, values, 0, size);
+            System.arraycopy(sourceIndices, 0, indices, 0, size);
+        }
+    }
+
+    private static void insertionSort(double[] values, int[] indices, int begin, int end) {
+        for (int i = begin + 1; i < end; i++) {
+            final double value = values[i];
+            final int index = indices[i];
+            int j = i - 1;
+            while (j >= begin && Double.compare(values[j], value) > 0) {
+                values[j + 1] = values[j];
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            values[j + 1] = value;
+            indices[j + 1] = index;
+        }
+    }
+
+    private static void merge(double[] values, int[] indices, int begin, int middle, int end,
+                              double[] targetValues, int[] targetIndices) {
+        if (middle == end || Double.compare(values[middle - 1], values[middle]) <= 0) {
+            // Already in order
+            System.arraycopy(values, begin, targetValues, begin, end - begin);
+            System.arraycopy(indices, begin, targetIndices, begin, end - begin);
+            return;
+        }
+        int left = begin;
+        int right = middle;
+        for (int i = begin; i < end; i++) {
+            // Taking the left one on ties keeps equal values in order
+            if (right >= end || (left < middle && Double.compare(values[left], values[right]) <= 0)) {
+                targetValues[i] = values[left];
+                targetIndices[i] = indices[left++];
+            } else {
+                targetValues[i] = values[right];
+                targetIndices[i] = indices[right++];
+            }
+        }
+    }
+
+    /**
+     * @return the number of values
+     */
+    public int size() {
+        return runStarts[runStarts.length - 1];
+    }
+
+    /**
+     * Determines the value at a sorted position, searching its run in O(log runs)
+     *
+     * @param index the sorted position
+     * @return the value at the position
+     */
+    public double getValue(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Position " + index + " is out of range");
+        }
+        final int position = Arrays.binarySearch(runStarts, index);
+        return runValues[(position >= 0) ? position : -position - 2];
+    }
+
+    /**
+     * @param index the sorted position
+     * @return the position the value at the sorted position was passed at
+     */
+    public int getOriginalIndex(int index) {
+        return originalIndices()[index];
+    }
+
+    /**
+     * @return true, if the column was built from counts and its values have no original positions
+     */
+    public boolean isCounted() {
+        return counted;
+    }
+
+    private int[] originalIndices() {
+        final int[] indices = originalIndices;
+        return (indices != null) ? indices : buildOriginalIndices();
+    }
+
+    private synchronized int[] buildOriginalIndices() {
+        if (originalIndices == null) {
+            if (unsortedValues == null) {
+                throw new IllegalArgumentException(counted
+                        ? "Column has been built from counts, its values have no original positions"
+                        : "Column has been sorted in place, its values have no original positions");
+            }
+            final int[] indices = identity(unsortedValues.length);
+            sortStably(unsortedValues, indices);
+            unsortedValues = null;
+            originalIndices = indices;
+        }
+        return originalIndices;
+    }
+
+    /**
+     * @return the smallest value
+     */
+    public double getMinValue() {
+        return runValues[0];
+    }
+
+    /**
+     * @return the largest value
+     */
+    public double getMaxValue() {
+        return runValues[runValues.length - 1];
+    }
+
+    /**
+     * @return the number of distinct values
+     */
+    public int getRunCount() {
+        return runValues.length;
+    }
+
+    /**
+     * @param run the run of equal values, in [0, {@link #getRunCount()})
+     * @return the first sorted position of the run
+     */
+    public int getRunStart(int run) {
+        return runStarts[run];
+    }
+
+    /**
+     * @param run the run of equal values, in [0, {@link #getRunCount()})
+     * @return the last sorted position of the run, inclusive
+     */
+    public int getRunEnd(int run) {
+        return runStarts[run + 1] - 1;
+    }
+
+    /**
+     * @param run the run of equal values, in [0, {@link #getRunCount()})
+     * @return the value all positions of the run hold
+     */
+    public double getRunValue(int run) {
+        return runValues[run];
+    }
+
+    /**
+     * Moves values given per original position to their sorted positions
+     *
+     * @param valuesByOriginalIndex e.g. class indices, of the column's size
+     * @return the values in sorted order
+     */
+    public int[] permute(int[] valuesByOriginalIndex) {
+        final int[] originalIndices = originalIndices();
+        if (valuesByOriginalIndex.length != originalIndices.length) {
+            throw new IllegalArgumentException("Labels need to be of same length as column values");
+        }
+        final int[] permuted = new int[originalIndices.length];
+        for (int i = 0; i < originalIndices.length; i++) {
+            permuted[i] = valuesByOriginalIndex[originalIndices[i]];
+        }
+        return permuted;
+    }
+}
@@ -0,0 +1,54 @@
+package de.viadee.discretizers4j;
+
+import java.io.Serializable;
+
+/**
+ * Fits a discretizer from chunks of a column, e.g. read from a scan, without holding the whole column in memory.
+ * <p>
+ * Chunks are fed one after the other, {@link #finish()} then fits the discretizer on all values fed.
+ *
+ * @param <D> type of the fitted discretizer
+ */
+public interface StreamingFitter<D extends Discretizer> {
+
+    /**
+     * Feeds a chunk of numeric values
+     *
+     * @param values the values
+     */
+    default void feed(double[] values) {
+        feed(values, null);
+    }
+
+    /**
+     * Feeds a chunk of numeric values
+     *
+     * @param values the values
+     * @param labels the labels of the values or null, iff unsupervised
+     */
+    void feed(double[] values, Double[] labels);
+
+    /**
+     * Feeds a chunk of values
+     *
+     * @param values the values
+     */
+    default void feed(Serializable[] values) {
+        feed(values, null);
+    }
+
+    /**
+     * Feeds a chunk of values
+     *
+     * @param values the values
+     * @param labels the labels of the values or null, iff unsupervised
+     */
+    void feed(Serializable[] values, Double[] labels);
+
+    /**
+     * Fits the discretizer on all chunks fed. No chunks may be fed afterwards
+     *
+     * @return the fitted discretizer
+     */
+    D finish();
+}
@@ -0,0 +1,322 @@
+package de.viadee.discretizers4j;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Primitive representation of a labeled column used by supervised discretizers.
+ * <p>
+ * Values are collapsed to one run per distinct value, ascending, holding the number of values of each class. So
+ * fitting takes time proportional to the number of distinct values, not to the number of values, and does not depend
+ * on the order equal values were passed in. Labels are encoded as class indices 0..m-1 in ascending order of their
+ * original values.
+ */
+public final class SupervisedColumn {
+    /** Widest range of class indices marked in a bit set, 2 MB */
+    private static final long MAX_CLASS_INDEX_RANGE = 1L << 24;
+
+    private final double[] runValues;
+    private final int size;
+    private final int classCount;
+    private final ClassHistogram classHistogram;
+    /** NaN, unless the runs are bins starting at their run value */
+    private final double binnedMaxValue;
+
+    private SupervisedColumn(double[] runValues, int[] runClassCounts, int classCount, double binnedMaxValue) {
+        this.runValues = runValues;
+        this.classCount = classCount;
+        this.classHistogram = new ClassHistogram(runClassCounts, runValues.length, classCount);
+        this.size = classHistogram.size(0, runValues.length - 1);
+        this.binnedMaxValue = binnedMaxValue;
+    }
+
+    /**
+     * Creates the column from unsorted values and their labels
+     *
+     * @param values the values, left untouched
+     * @param labels the labels of the values
+     * @return the sorted column
+     */
+    public static SupervisedColumn of(double[] values, Double[] labels) {
+        final int[] classIndices = encodeLabels(labels);
+        return sorted(SortedColumn.withOriginalIndices(values), classIndices,
+                Arrays.stream(classIndices).max().orElse(-1) + 1);
+    }
+
+    /**
+     * Encodes labels as class indices 0..m-1 in ascending order of their values
+     *
+     * @param labels the labels
+     * @return the class index of each label
+     */
+    static int[] encodeLabels(Double[] labels) {
+        final double[] targetValues = new double[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            targetValues[i] = labels[i];
+        }
+        final double[] distinctTargetValues = distinctSorted(targetValues);
+
+        final int[] classIndices = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            classIndices[i] = Arrays.binarySearch(distinctTargetValues, targetValues[i]);
+        }
+        return classIndices;
+    }
+
+    /**
+     * Creates the column from unsorted values and their class indices.
+     * <p>
+     * Class indices need not be consecutive, they are mapped to 0..m-1 keeping their order.
+     *
+     * @param values       the values, left untouched
+     * @param classIndices the class indices of the values, left untouched
+     * @return the sorted column
+     */
+    public static SupervisedColumn of(double[] values, int[] classIndices) {
+        return of(SortedColumn.withOriginalIndices(values), classIndices);
+    }
+
+    /**
+     * Creates the column from an already sorted column and the class indices of its values, without sorting again.
+     * <p>
+     * Class indices need not be consecutive, they are mapped to 0..m-1 keeping their order.
+     *
+     * @param column       the sorted values
+     * @param classIndices the class indices of the values in the order they were passed to the sorted column
+     * @return the column
+     */
+    public static SupervisedColumn of(SortedColumn column, int[] classIndices) {
+        final int[] distinctClassIndices = distinctClassIndices(classIndices);
+        return sorted(column, denseClassIndices(classIndices, distinctClassIndices), distinctClassIndices.length);
+    }
+
+    /**
+     * Creates the column from a sorted column and class indices already mapped to 0..classCount-1, e.g. by
+     * {@link #encodeLabels(Double[])} once for all columns of a table
+     *
+     * @param column       the sorted values
+     * @param classIndices the class indices in 0..classCount-1, in the order the values were passed to the column
+     * @param classCount   the number of classes
+     * @return the column
+     */
+    static SupervisedColumn ofEncoded(SortedColumn column, int[] classIndices, int classCount) {
+        return sorted(column, classIndices, classCount);
+    }
+
+    /**
+     * Creates the column from pre-aggregated records, each standing for count values of the same class, without
+     * expanding them. Results equal those of the expanded column.
+     * <p>
+     * Class indices need not be consecutive, they are mapped to 0..m-1 keeping their order. Classes of records with a
+     * count of zero are ignored.
+     *
+     * @param values       the values of the records, left untouched. Records may repeat a value and class
+     * @param classIndices the class index of each record
+     * @param counts       the number of values each record stands for, not negative
+     * @return the column
+     */
+    public static SupervisedColumn ofCounts(double[] values, int[] classIndices, int[] counts) {
+        if (values == null || classIndices == null || counts == null) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+        if (classIndices.length != values.length || counts.length != values.length) {
+            throw new IllegalArgumentException("Labels and counts need to be of same length as column values");
+        }
+        final int[] distinctClassIndices = IntStream.range(0, classIndices.length).filter(i -> counts[i] != 0)
+                .map(i -> classIndices[i]).sorted().distinct().toArray();
+        final int classCount = distinctClassIndices.length;
+        if ((long) values.length * classCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many records to build a class histogram with " + classCount
+                    + " classes");
+        }
+
+        final int[] runClassCounts = new int[values.length * classCount];
+        final double[] runValues = SortedColumn.aggregate(values,
+                denseClassIndices(classIndices, distinctClassIndices), counts, runClassCounts, classCount);
+        return ofRuns(runValues, Arrays.copyOf(runClassCounts, runValues.length * classCount), classCount);
+    }
+
+    /**
+     * Finds the distinct class indices in linear time. Class indices spanning a narrow range are marked in a bit set,
+     * others are collected by hashing, so only the distinct ones are sorted.
+     *
+     * @param classIndices the class indices, left untouched
+     * @return the distinct class indices, ascending
+     */
+    static int[] distinctClassIndices(int[] classIndices) {
+        if (classIndices.length == 0) {
+            return new int[0];
+        }
+        int min = classIndices[0];
+        int max = classIndices[0];
+        for (int classIndex : classIndices) {
+            min = Math.min(min, classIndex);
+            max = Math.max(max, classIndex);
+        }
+        if ((long) max - min >= MAX_CLASS_INDEX_RANGE) {
+            return Arrays.stream(classIndices).distinct().sorted().toArray();
+        }
+
+        final BitSet present = new BitSet(max - min + 1);
+        for (int classIndex : classIndices) {
+            present.set(classIndex - min);
+        }
+        final int[] distinctClassIndices = new int[present.cardinality()];
+        for (int i = 0, bit = present.nextSetBit(0); bit >= 0; bit = present.nextSetBit(bit + 1)) {
+            distinctClassIndices[i++] = bit + min;
+        }
+        return distinctClassIndices;
+    }
+
+    /**
+     * @return the position of each class index within the distinct ones, -1 for the ones not contained
+     */
+    private static int[] denseClassIndices(int[] classIndices, int[] distinctClassIndices) {
+        final int[] denseClassIndices = new int[classIndices.length];
+        for (int i = 0; i < classIndices.length; i++) {
+            denseClassIndices[i] = Math.max(-1, Arrays.binarySearch(distinctClassIndices, classIndices[i]));
+        }
+        return denseClassIndices;
+    }
+
+    /**
+     * Counts the classes of each run of the sorted values
+     */
+    private static SupervisedColumn sorted(SortedColumn column, int[] classIndices, int classCount) {
+        if (classIndices.length != column.size()) {
+            throw new IllegalArgumentException("Labels need to be of same length as column values");
+        }
+        final int runCount = column.getRunCount();
+        if ((long) runCount * classCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Column has too many distinct values to build a class histogram with "
+                    + classCount + " classes");
+        }
+        final double[] runValues = new double[runCount];
+        final int[] runClassCounts = new int[runCount * classCount];
+        for (int run = 0; run < runCount; run++) {
+            runValues[run] = column.getRunValue(run);
+            final int offset = run * classCount;
+            for (int i = column.getRunStart(run); i <= column.getRunEnd(run); i++) {
+                runClassCounts[offset + classIndices[column.getOriginalIndex(i)]]++;
+            }
+        }
+        return ofRuns(runValues, runClassCounts, classCount);
+    }
+
+    /**
+     * Creates the column from runs counted beforehand
+     *
+     * @param runValues      the distinct values, ascending
+     * @param runClassCounts the number of values per class of each run, m consecutive counts per run
+     * @param classCount     the number of classes m
+     * @return the column
+     */
+    static SupervisedColumn ofRuns(double[] runValues, int[] runClassCounts, int classCount) {
+        return new SupervisedColumn(runValues, runClassCounts, classCount, Double.NaN);
+    }
+
+    /**
+     * Creates the column from bins counted beforehand. Each bin is a run covering the values from its lower bound up to
+     * the next bin's one, so cut points are placed on the lower bounds.
+     *
+     * @param lowerBounds    the lowest value of each bin, ascending
+     * @param binClassCounts the number of values per class of each bin, m consecutive counts per bin
+     * @param classCount     the number of classes m
+     * @param maxValue       the largest value of the last bin
+     * @return the column
+     */
+    static SupervisedColumn ofBins(double[] lowerBounds, int[] binClassCounts, int classCount, double maxValue) {
+        return new SupervisedColumn(lowerBounds, binClassCounts, classCount, maxValue);
+    }
+
+    private static double[] distinctSorted(double[] values) {
+        final double[] sorted = Arrays.copyOf(values, values.length);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (double value : sorted) {
+            if (distinct == 0 || Double.compare(value, sorted[distinct - 1]) != 0) {
+                sorted[distinct++] = value;
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    /**
+     * @return estimate of the bytes held by the runs and their histogram
+     */
+    long estimateBytes() {
+        return (runValues.length + 1L) * (16L + 8L * classCount);
+    }
+
+    /**
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of runs, i.e. of distinct values
+     */
+    public int getRunCount() {
+        return runValues.length;
+    }
+
+    /**
+     * @param run the run, in [0, {@link #getRunCount()})
+     * @return the value of all values in the run, or the lower bound of a bin
+     */
+    public double getRunValue(int run) {
+        return runValues[run];
+    }
+
+    /**
+     * Determines the cut point separating two neighbouring runs, the midpoint of their values or the lower bound of
+     * the upper bin
+     *
+     * @param run the run below the cut point, in [0, {@link #getRunCount()} - 1)
+     * @return the cut point between the run and the next one
+     */
+    public double getCutPoint(int run) {
+        if (Double.isNaN(binnedMaxValue)) {
+            return (runValues[run] + runValues[run + 1]) / 2;
+        }
+        return runValues[run + 1];
+    }
+
+    /**
+     * @return the smallest value
+     */
+    public double getMinValue() {
+        return runValues[0];
+    }
+
+    /**
+     * @return the largest value
+     */
+    public double getMaxValue() {
+        return Double.isNaN(binnedMaxValue) ? runValues[runValues.length - 1] : binnedMaxValue;
+    }
+
+    /**
+     * @return the number of distinct classes m
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * @return the cumulative class counts per run, built once with the column
+     */
+    public ClassHistogram getClassHistogram() {
+        return classHistogram;
+    }
+
+    /**
+     * @return the number of values per class
+     */
+    public int[] getClassDistribution() {
+        return classHistogram.classDistribution(0, runValues.length - 1);
+    }
+}
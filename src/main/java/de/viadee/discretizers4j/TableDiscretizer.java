@@ -0,0 +1,169 @@
+package de.viadee.discretizers4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Discretizes all numeric columns of a table, one {@link AbstractDiscretizer} per column.
+ * <p>
+ * Columns are fitted independently of each other on an {@link ExecutorService}. Labels are encoded once and shared by
+ * all supervised discretizers.
+ */
+public final class TableDiscretizer {
+    private final List<AbstractDiscretizer> discretizers;
+
+    /**
+     * Constructs the instance
+     *
+     * @param discretizers the unfitted discretizer of each column, in column order
+     */
+    public TableDiscretizer(List<? extends AbstractDiscretizer> discretizers) {
+        if (discretizers == null || discretizers.isEmpty()) {
+            throw new IllegalArgumentException("No discretizers passed");
+        }
+        this.discretizers = Collections.unmodifiableList(new ArrayList<>(discretizers));
+    }
+
+    /**
+     * @return the discretizer of each column, in column order
+     */
+    public List<AbstractDiscretizer> getDiscretizers() {
+        return discretizers;
+    }
+
+    /**
+     * Fits all columns on the common {@link ForkJoinPool}
+     *
+     * @param columns the values, column-major
+     * @param labels  the labels of the rows or null, iff all discretizers are unsupervised
+     */
+    public void fit(double[][] columns, Double[] labels) {
+        fit(columns, labels, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Fits all columns
+     *
+     * @param columns  the values, column-major
+     * @param labels   the labels of the rows or null, iff all discretizers are unsupervised
+     * @param executor the executor to fit the columns on
+     */
+    public void fit(double[][] columns, Double[] labels, ExecutorService executor) {
+        if (columns == null || columns.length != discretizers.size()) {
+            throw new IllegalArgumentException("Expected " + discretizers.size() + " columns");
+        }
+        for (double[] column : columns) {
+            if (column.length != columns[0].length) {
+                throw new IllegalArgumentException("All columns need to be of same length");
+            }
+        }
+        if (labels != null && labels.length != columns[0].length) {
+            throw new IllegalArgumentException("Labels need to be of same length as column values");
+        }
+
+        final int[] classIndices = (labels == null) ? null : SupervisedColumn.encodeLabels(labels);
+        final int classCount = (classIndices == null) ? 0 : Arrays.stream(classIndices).max().orElse(-1) + 1;
+        final List<Future<?>> fits = new ArrayList<>(columns.length);
+        for (int c = 0; c < columns.length; c++) {
+            final AbstractDiscretizer discretizer = discretizers.get(c);
+            final double[] column = columns[c];
+            fits.add(executor.submit(() -> fitColumn(discretizer, column, classIndices, classCount)));
+        }
+        awaitAll(fits);
+    }
+
+    /**
+     * Fits unsupervised discretizers on the plain column, so each one keeps its own fitting procedure, e.g. selection
+     * instead of sorting
+     */
+    private static void fitColumn(AbstractDiscretizer discretizer, double[] column, int[] classIndices,
+                                  int classCount) {
+        if (discretizer instanceof AbstractSupervisedDiscretizer) {
+            if (classIndices == null) {
+                throw new IllegalArgumentException("Labels need to be specified for supervised discretizers");
+            }
+            ((AbstractSupervisedDiscretizer) discretizer).fitEncoded(column, classIndices, classCount);
+            return;
+        }
+        discretizer.fit(column);
+    }
+
+    /**
+     * Waits for all fits, cancelling the remaining ones as soon as one fails
+     */
+    private static void awaitAll(List<Future<?>> fits) {
+        try {
+            for (Future<?> fit : fits) {
+                fit.get();
+            }
+        } catch (InterruptedException e) {
+            cancelAll(fits);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fitting columns", e);
+        } catch (ExecutionException e) {
+            cancelAll(fits);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Fitting a column failed", e.getCause());
+        }
+    }
+
+    private static void cancelAll(List<Future<?>> fits) {
+        for (Future<?> fit : fits) {
+            fit.cancel(true);
+        }
+    }
+
+    /**
+     * Applies the discretizers to a block of columns
+     *
+     * @param columns the values, column-major
+     * @return the discretized values, column-major
+     */
+    public double[][] apply(double[][] columns) {
+        checkWidth(columns.length);
+        final double[][] discretizedColumns = new double[columns.length][];
+        for (int c = 0; c < columns.length; c++) {
+            discretizedColumns[c] = discretizers.get(c).apply(columns[c]);
+        }
+        return discretizedColumns;
+    }
+
+    /**
+     * Applies the discretizers to a block of rows
+     *
+     * @param rows the values, row-major
+     * @return the discretized values, row-major
+     */
+    public double[][] applyToRows(double[][] rows) {
+        for (double[] row : rows) {
+            checkWidth(row.length);
+        }
+        final double[][] discretizedRows = new double[rows.length][discretizers.size()];
+        final double[] column = new double[rows.length];
+        final double[] discretizedColumn = new double[rows.length];
+        for (int c = 0; c < discretizers.size(); c++) {
+            for (int r = 0; r < rows.length; r++) {
+                column[r] = rows[r][c];
+            }
+            discretizers.get(c).apply(column, discretizedColumn);
+            for (int r = 0; r < rows.length; r++) {
+                discretizedRows[r][c] = discretizedColumn[r];
+            }
+        }
+        return discretizedRows;
+    }
+
+    private void checkWidth(int width) {
+        if (width != discretizers.size()) {
+            throw new IllegalArgumentException("Expected " + discretizers.size() + " columns, got " + width);
+        }
+    }
+}
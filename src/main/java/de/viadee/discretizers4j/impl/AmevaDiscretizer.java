@@ -1,27 +1,20 @@
 package de.viadee.discretizers4j.impl;
 
 import de.viadee.discretizers4j.AbstractSupervisedDiscretizer;
+import de.viadee.discretizers4j.ClassHistogram;
 import de.viadee.discretizers4j.DiscretizationTransition;
-import de.viadee.discretizers4j.Interval;
+import de.viadee.discretizers4j.FitRecorder;
+import de.viadee.discretizers4j.SupervisedColumn;
 
-import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * Implementation of the Ameva discretization algorithm described by [Gonzales-Abril, Cuberos, Velasco, Ortega 2009]
  */
 public class AmevaDiscretizer extends AbstractSupervisedDiscretizer {
 
-    private Double[] targetValues;
-    private long[] targetValueDistribution;
-    private List<Double> bCutPoints = new ArrayList<>();
-    private List<Double> actualCutPoints = new ArrayList<>();
-    private List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs;
-
     /**
      * Constructs the Ameva Discretizer, Ameva works without any Parameters.
      */
@@ -34,111 +27,245 @@ public class AmevaDiscretizer extends AbstractSupervisedDiscretizer {
      * Ameva value (variation of contingency coefficient) of the tentative cut points. Get best cut point of this
      * iteration. If the ameva value does not increase with new cut points break and return Discretization
      *
-     * @param keyValuePairs List of Values and Labels
+     * @param column sorted Values and Labels
      * @return list of DiscretizationTransition determined to have the highest Ameva value
      */
     @Override
-    protected List<DiscretizationTransition> fitCreateTransitions(List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs) {
-        this.keyValuePairs = keyValuePairs;
-        targetValues = keyValuePairs.stream().map(AbstractMap.SimpleImmutableEntry::getValue).sorted().distinct().toArray(Double[]::new);
-        targetValueDistribution = new long[targetValues.length];
-        for (int i = 0; i < targetValues.length; i++) {
-            int finalI = i;
-            targetValueDistribution[i] = keyValuePairs.stream().map(AbstractMap.SimpleImmutableEntry::getValue)
-                    .filter(label -> label.equals(targetValues[finalI])).count();
-        }
+    protected List<DiscretizationTransition> fitCreateTransitions(SupervisedColumn column) {
+        final long[] targetValueDistribution = Arrays.stream(column.getClassDistribution()).asLongStream().toArray();
+        final FitRecorder recorder = getFitRecorder();
+        final long start = recorder.start();
+        final CutPointSearch search = new CutPointSearch(column, targetValueDistribution);
+        final List<Double> actualCutPoints = search.search();
+        recorder.phase("candidateScoring", start);
+        recorder.candidatesEvaluated(search.candidatesEvaluated);
+        recorder.intervalsBuilt(search.segmentsBuilt);
+        recorder.iterations(actualCutPoints.size());
+        recorder.scratchBytes(16L * column.getRunCount() + 12L * search.candidates.length);
+
+        return getDiscretizationTransitionsFromCutPoints(actualCutPoints, column.getMinValue(), column.getMaxValue());
+    }
 
-        bCutPoints = IntStream.range(0, keyValuePairs.size() - 1)
-                .mapToObj(i -> (((keyValuePairs.get(i).getKey()) + (keyValuePairs.get(i + 1).getKey())) / 2))
-                .sorted().distinct()
-                .collect(Collectors.toList());
+    /**
+     * Incremental evaluation of the Ameva criterion.
+     * <p>
+     * Chi-squared is the sum of one contribution per interval. Adding a cut point only splits the interval containing
+     * it, so the chi-squared of a tentative cut point is the current sum minus that interval's contribution plus the
+     * contributions of both halves, which are determined from the {@link ClassHistogram} in O(m). The best candidate
+     * per interval is kept and only re-evaluated for the two halves after a split.
+     */
+    static final class CutPointSearch {
+        private final SupervisedColumn column;
+        private final ClassHistogram histogram;
+        private final long[] targetValueDistribution;
+        private final int[] classDist;
 
-        double globalAmeva = 0.0;
-        double ameva = createNewCutPoint(globalAmeva);
+        /** Distinct midpoints between consecutive values, ascending */
+        private final double[] candidates;
+        /** First run not below each candidate */
+        private final int[] candidatePositions;
 
-        // ameva will be above globalAmeva until the (local) maximum of the contingency coefficient is found.
-        // to prevent an infinite looping in while loop, length of potential cut points is tested for emptiness, to break the loop if
-        // all potential cut points have been added.
-        while (ameva > globalAmeva && !bCutPoints.isEmpty()) {
-            globalAmeva = ameva;
-            ameva = createNewCutPoint(globalAmeva);
+        /** Intervals between the actual cut points, ascending */
+        private final List<Segment> segments = new ArrayList<>();
+        private final List<Double> actualCutPoints = new ArrayList<>();
+        private double contributionSum;
+
+        /** Tentative cut points scored and intervals created so far, for the fit report */
+        private long candidatesEvaluated;
+        private int segmentsBuilt;
+
+        /**
+         * @param column                  sorted values and labels
+         * @param targetValueDistribution number of values per class, divisor of the chi-squared terms
+         */
+        CutPointSearch(SupervisedColumn column, long[] targetValueDistribution) {
+            this.column = column;
+            this.histogram = column.getClassHistogram();
+            this.targetValueDistribution = targetValueDistribution;
+            this.classDist = new int[column.getClassCount()];
+
+            // Midpoints between consecutive values: within runs of several values and between neighbouring runs
+            final double[] midPoints = new double[2 * column.getRunCount() - 1];
+            int midPointCount = 0;
+            for (int run = 0; run < column.getRunCount(); run++) {
+                final double value = column.getRunValue(run);
+                if (histogram.size(run, run) > 1) {
+                    midPoints[midPointCount++] = (value + value) / 2;
+                }
+                if (run > 0) {
+                    midPoints[midPointCount++] = column.getCutPoint(run - 1);
+                }
+            }
+            Arrays.sort(midPoints, 0, midPointCount);
+            int distinct = 0;
+            for (int i = 0; i < midPointCount; i++) {
+                if (i == 0 || Double.compare(midPoints[i], midPoints[i - 1]) != 0) {
+                    midPoints[distinct++] = midPoints[i];
+                }
+            }
+            this.candidates = Arrays.copyOf(midPoints, distinct);
+
+            this.candidatePositions = new int[candidates.length];
+            int z = 0;
+            for (int c = 0; c < candidates.length; c++) {
+                while (z < column.getRunCount() && column.getRunValue(z) < candidates[c]) {
+                    z++;
+                }
+                candidatePositions[c] = z;
+            }
+
+            final Segment complete = new Segment(-1, candidates.length, 0, column.getRunCount() - 1);
+            segments.add(complete);
+            contributionSum = complete.contribution;
         }
 
-        return getDiscretizationTransitionsFromCutPoints(actualCutPoints, keyValuePairs.get(0).getKey(), keyValuePairs.get(keyValuePairs.size() - 1).getKey());
-    }
+        /**
+         * Consecutively adds the candidate with the highest ameva, as long as the ameva increases.
+         * On ties the lowest candidate wins.
+         *
+         * @return the accepted cut points in the order they were added
+         */
+        List<Double> search() {
+            if (column.getClassCount() < 2) {
+                // The criterion is undefined for a single class
+                return actualCutPoints;
+            }
 
-    /**
-     * tentatively adds new cutPoints to the actualCutpoints and accepts the cutPoints with the highest ameva.
-     *
-     * @param currentAmeva ameva of the current actualCutpoints, used to compare to new value
-     * @return the new ameva value, after the best potential cut point has been added to actualCutpoints
-     */
-    private double createNewCutPoint(double currentAmeva) {
-        double maxAmeva = currentAmeva;
-        int maxPos = 0;
-        for (int i = 0; i < bCutPoints.size(); i++) {
-            double potentialCutPoint = bCutPoints.get(i);
-            double ameva = determineAmeva(potentialCutPoint);
-
-            if (ameva > maxAmeva) {
-                maxPos = i;
-                maxAmeva = ameva;
+            double globalAmeva = 0.0;
+            while (true) {
+                int bestSegment = -1;
+                for (int s = 0; s < segments.size(); s++) {
+                    final Segment segment = segments.get(s);
+                    if (segment.bestCandidate >= 0
+                            && (bestSegment < 0 || segment.bestGain > segments.get(bestSegment).bestGain)) {
+                        bestSegment = s;
+                    }
+                }
+                if (bestSegment < 0) {
+                    break;
+                }
+
+                final double ameva = ameva(contributionSum + segments.get(bestSegment).bestGain, segments.size() + 1);
+                if (!(ameva > globalAmeva)) {
+                    break;
+                }
+                split(bestSegment, segments.get(bestSegment).bestCandidate);
+                globalAmeva = ameva;
             }
+            return actualCutPoints;
         }
-        if (maxAmeva != currentAmeva) {
-            actualCutPoints.add(bCutPoints.get(maxPos));
-            bCutPoints.remove(maxPos);
+
+        /**
+         * Accepts a cut point.
+         *
+         * @param cutPoint one of the midpoints between consecutive values
+         */
+        void addCutPoint(double cutPoint) {
+            final int candidate = candidateOf(cutPoint);
+            split(segmentOf(candidate), candidate);
         }
 
-        return maxAmeva;
-    }
+        /**
+         * determines the ameva the intervals would have if this cut point would be added. Uses variation of
+         * contingency coefficient.
+         *
+         * @param potentialCutPoint one of the midpoints between consecutive values
+         * @return ameva of potential Intervals if cut point would be added, NaN if it would leave an interval empty
+         */
+        double determineAmeva(double potentialCutPoint) {
+            final int candidate = candidateOf(potentialCutPoint);
+            final double gain = segments.get(segmentOf(candidate)).gain(candidate);
+            return ameva(contributionSum + gain, segments.size() + 1);
+        }
 
-    /**
-     * determines the ameva the intervals would have if this cut point would be added. Uses variation of contingency
-     * coefficient.
-     *
-     * @param potentialCutPoint double value of new cut point, used to generate Intervals
-     * @return ameva of potential Intervals if cut point would be added
-     */
-    double determineAmeva(double potentialCutPoint) {
-        List<Double> potentialCutPoints = new ArrayList<>(actualCutPoints);
-        potentialCutPoints.add(potentialCutPoint);
-        Collections.sort(potentialCutPoints);
-        List<Interval> intervals = getIntervalsFromCutPoints(potentialCutPoints);
-
-        double chiSquared = 0.0;
-        for (int i = 0; i < targetValues.length; i++) {
-            for (Interval interval : intervals) {
-                double dividend = Math.pow(interval.getClassDist()[i], 2);
-                double divisor = targetValueDistribution[i] * (double) interval.getSize();
-                chiSquared += dividend / divisor;
+        private double ameva(double contributions, int intervalCount) {
+            final double chiSquared = column.size() * (-1 + contributions);
+            return chiSquared / (intervalCount * (column.getClassCount() - 1));
+        }
+
+        private void split(int segmentIndex, int candidate) {
+            final Segment segment = segments.get(segmentIndex);
+            final int position = candidatePositions[candidate];
+            final Segment left = new Segment(segment.lo, candidate, segment.begin, position - 1);
+            final Segment right = new Segment(candidate, segment.hi, position, segment.end);
+            segments.set(segmentIndex, left);
+            segments.add(segmentIndex + 1, right);
+            contributionSum += left.contribution + right.contribution - segment.contribution;
+            actualCutPoints.add(candidates[candidate]);
+        }
+
+        private int candidateOf(double cutPoint) {
+            final int candidate = Arrays.binarySearch(candidates, cutPoint);
+            if (candidate < 0) {
+                throw new IllegalArgumentException("Cut point " + cutPoint + " is no midpoint of the values");
             }
+            return candidate;
         }
-        chiSquared = (keyValuePairs.size()) * (-1 + chiSquared);
 
-        return chiSquared / (intervals.size() * (targetValues.length - 1));
-    }
+        private int segmentOf(int candidate) {
+            for (int s = 0; s < segments.size(); s++) {
+                if (segments.get(s).lo < candidate && candidate < segments.get(s).hi) {
+                    return s;
+                }
+            }
+            throw new IllegalArgumentException("Cut point " + candidates[candidate] + " has already been added");
+        }
 
-    /**
-     * creates {@link Interval} from intervals.
-     *
-     * @param cutPoints list of cut points. Have to be in values.
-     * @return list of Intervals
-     */
-    private List<Interval> getIntervalsFromCutPoints(List<Double> cutPoints) {
-        int lowerBoundary = 0;
-        int z = 0;
-        List<Interval> createdIntervals = new ArrayList<>();
-        for (Double cp : cutPoints) {
-            while (z < keyValuePairs.size() && keyValuePairs.get(z).getKey() < cp) {
-                z++;
+        /**
+         * @return the sum over all classes of the squared class count divided by class total and interval size
+         */
+        private double contribution(int begin, int end) {
+            histogram.classDistribution(begin, end, classDist);
+            final double size = histogram.size(begin, end);
+            double contribution = 0.0;
+            for (int i = 0; i < classDist.length; i++) {
+                contribution += Math.pow(classDist[i], 2) / (targetValueDistribution[i] * size);
             }
-            createdIntervals.add(new Interval(lowerBoundary, z - 1, keyValuePairs));
-            lowerBoundary = z;
+            return contribution;
         }
-        if (createdIntervals.get(createdIntervals.size() - 1).getEnd() != keyValuePairs.get(keyValuePairs.size() - 1).getKey()) {
-            createdIntervals.add(new Interval(lowerBoundary, keyValuePairs.size() - 1, keyValuePairs));
+
+        /**
+         * An interval between two actual cut points, together with its best candidate
+         */
+        private final class Segment {
+            /** Candidate indices of the bounding cut points, exclusive */
+            private final int lo;
+            private final int hi;
+            /** Runs, inclusive */
+            private final int begin;
+            private final int end;
+            private final double contribution;
+            private int bestCandidate = -1;
+            private double bestGain;
+
+            private Segment(int lo, int hi, int begin, int end) {
+                this.lo = lo;
+                this.hi = hi;
+                this.begin = begin;
+                this.end = end;
+                this.contribution = contribution(begin, end);
+                segmentsBuilt++;
+                candidatesEvaluated += Math.max(0, hi - lo - 1);
+                for (int c = lo + 1; c < hi; c++) {
+                    final double gain = gain(c);
+                    // NaN gains (empty halves) never win
+                    if (gain > bestGain || (bestCandidate < 0 && !Double.isNaN(gain))) {
+                        bestCandidate = c;
+                        bestGain = gain;
+                    }
+                }
+            }
+
+            /**
+             * @return the change of the contribution sum if the candidate is added, NaN if a half would be empty
+             */
+            private double gain(int candidate) {
+                final int position = candidatePositions[candidate];
+                if (position <= begin || position > end) {
+                    return Double.NaN;
+                }
+                return contribution(begin, position - 1) + contribution(position, end) - contribution;
+            }
         }
-        return createdIntervals;
     }
 }
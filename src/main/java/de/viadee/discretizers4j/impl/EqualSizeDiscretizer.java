@@ -2,15 +2,15 @@ package de.viadee.discretizers4j.impl;
 
 import de.viadee.discretizers4j.AbstractDiscretizer;
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.SortedColumn;
 
-import java.io.Serializable;
 import java.util.List;
 
 /**
  * Implementation of the PKID and ESD discretization algorithms described by [Yang and Webb 2009]
  */
 public class EqualSizeDiscretizer extends AbstractDiscretizer {
-    private int classSize;
+    private final int classSize;
 
     /**
      * creates a {@link PercentileMedianDiscretizer} which creates intervals, that are the same size as there are
@@ -35,18 +35,35 @@ public class EqualSizeDiscretizer extends AbstractDiscretizer {
      * creates the {@link DiscretizationTransition} of the values. Each transition will have the same size. If no size
      * is given as a parameter in the constructor, a PKID will be created.
      *
-     * @param values the values to be fitted on
-     * @param labels the labels. != null, iff supervised
+     * @param values the values to be fitted on, reordered in place
      * @return list of transitions, created by {@link PercentileMedianDiscretizer}. All will have the same length.
      */
     @Override
-    protected List<DiscretizationTransition> fitCreateTransitions(Serializable[] values, Double[] labels) {
-        if (classSize == 0) {
-            classSize = (int) Math.sqrt(values.length);
-        } else if (classSize >= values.length) {
-            classSize = values.length;
+    protected List<DiscretizationTransition> fitCreateTransitions(double[] values) {
+        return createPercentileMedianDiscretizer(values.length).fitCreateTransitions(values);
+    }
+
+    /**
+     * creates the {@link DiscretizationTransition} of the sorted values, like {@link #fitCreateTransitions(double[])}
+     *
+     * @param column the sorted values to be fitted on
+     * @return list of transitions, created by {@link PercentileMedianDiscretizer}. All will have the same length.
+     */
+    @Override
+    protected List<DiscretizationTransition> fitCreateTransitions(SortedColumn column) {
+        return createPercentileMedianDiscretizer(column.size()).fitCreateTransitions(column);
+    }
+
+    private PercentileMedianDiscretizer createPercentileMedianDiscretizer(int valueCount) {
+        int intervalSize = classSize;
+        if (intervalSize == 0) {
+            intervalSize = (int) Math.sqrt(valueCount);
+        } else if (intervalSize >= valueCount) {
+            intervalSize = valueCount;
         }
-        PercentileMedianDiscretizer percentileMedianDiscretizer = new PercentileMedianDiscretizer((values.length / classSize));
-        return percentileMedianDiscretizer.fitCreateTransitions(values, null);
+        final PercentileMedianDiscretizer percentileMedianDiscretizer =
+                new PercentileMedianDiscretizer((valueCount / intervalSize));
+        shareFitRecorder(percentileMedianDiscretizer);
+        return percentileMedianDiscretizer;
     }
 }
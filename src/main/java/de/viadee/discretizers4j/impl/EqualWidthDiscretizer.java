@@ -0,0 +1,106 @@
+package de.viadee.discretizers4j.impl;
+
+import de.viadee.discretizers4j.AbstractDiscretizer;
+import de.viadee.discretizers4j.AbstractStreamingFitter;
+import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.SortedColumn;
+import de.viadee.discretizers4j.StreamingFitter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Discretizer partitioning the range of the data into n classes of equal width, labeled by their index.
+ * <p>
+ * Fitting only needs minimum and maximum of the values. As the cut points are spaced equally, applying the discretizer
+ * computes the class arithmetically instead of searching it.
+ */
+public class EqualWidthDiscretizer extends AbstractDiscretizer {
+    private final int classCount;
+
+    /**
+     * Constructs the instance
+     *
+     * @param classCount count of classes
+     */
+    public EqualWidthDiscretizer(int classCount) {
+        super(false);
+        if (classCount < 1) {
+            throw new IllegalArgumentException("At least one class needs to be created");
+        }
+        this.classCount = classCount;
+    }
+
+    @Override
+    protected List<DiscretizationTransition> fitCreateTransitions(double[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            checkFinite(value);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return createTransitions(min, max);
+    }
+
+    @Override
+    protected List<DiscretizationTransition> fitCreateTransitions(SortedColumn column) {
+        checkFinite(column.getMinValue());
+        checkFinite(column.getMaxValue());
+        return createTransitions(column.getMinValue(), column.getMaxValue());
+    }
+
+    private static void checkFinite(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Equal width classes need finite values, got " + value);
+        }
+    }
+
+    private List<DiscretizationTransition> createTransitions(double min, double max) {
+        double width = (max - min) / classCount;
+        if (Double.isInfinite(width)) {
+            // The range exceeds the double range
+            width = max / classCount - min / classCount;
+        }
+        final List<Double> cutPoints = new ArrayList<>();
+        for (int i = 1; i < classCount; i++) {
+            final double cutPoint = min + i * width;
+            if (cutPoint > min && cutPoint < max) {
+                cutPoints.add(cutPoint);
+            }
+        }
+        return getDiscretizationTransitionsFromCutPoints(cutPoints, min, max);
+    }
+
+    /**
+     * Opens a fitter tracking minimum and maximum of the chunks fed, the only properties of the domain this
+     * discretizer depends on. Results equal those of {@link #fit(Serializable[])} on all values fed.
+     *
+     * @return the fitter of this discretizer
+     */
+    public StreamingFitter<EqualWidthDiscretizer> streamingFitter() {
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+        return new AbstractStreamingFitter<EqualWidthDiscretizer>(false) {
+            private double min = Double.POSITIVE_INFINITY;
+            private double max = Double.NEGATIVE_INFINITY;
+            private long count;
+
+            @Override
+            protected void feedValue(double value, Double label) {
+                checkFinite(value);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                count++;
+            }
+
+            @Override
+            protected EqualWidthDiscretizer fitSummary() {
+                fit((count == 0) ? new double[0] : new double[]{min, max});
+                return EqualWidthDiscretizer.this;
+            }
+        };
+    }
+}
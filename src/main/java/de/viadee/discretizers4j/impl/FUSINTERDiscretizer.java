@@ -1,12 +1,15 @@
 package de.viadee.discretizers4j.impl;
 
-import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.PriorityQueue;
 
 import de.viadee.discretizers4j.AbstractSupervisedDiscretizer;
+import de.viadee.discretizers4j.ClassHistogram;
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.FitRecorder;
 import de.viadee.discretizers4j.Interval;
+import de.viadee.discretizers4j.SupervisedColumn;
 
 /**
  * Implementation of the FUSINTER discretization algorithm described by [Zighed,
@@ -16,12 +19,6 @@ public class FUSINTERDiscretizer extends AbstractSupervisedDiscretizer {
 	private final double lambda;
 	private final double alpha;
 
-	/** Number of possible classifications */
-	private int m;
-
-	/** Number of instances */
-	private int n;
-
 	/**
 	 * Generates a FUSINTER discretizer with parameters suggested by the authors
 	 */
@@ -45,100 +42,190 @@ public class FUSINTERDiscretizer extends AbstractSupervisedDiscretizer {
 	 * Implementation of FUSINTER, 1. sort, 2. equalClassIntervals 3. merge if
 	 * entropy improves
 	 *
-	 * @param keyValuePairs List of Values and Labels
+	 * @param column sorted Values and Labels
 	 * @return list of Intervals determined to have the highest entropy
 	 */
 	@Override
-	protected List<DiscretizationTransition> fitCreateTransitions(
-			List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs) {
+	protected List<DiscretizationTransition> fitCreateTransitions(SupervisedColumn column) {
 
-		m = keyValuePairs.stream().map(AbstractMap.SimpleImmutableEntry::getValue).sorted().distinct().toArray().length;
-		n = keyValuePairs.size();
-
-		final List<Interval> equalClassSplits = equalClassSplit(keyValuePairs);
-		final List<Interval> evaluatedIntervals = evaluateIntervals(equalClassSplits, keyValuePairs);
+		final List<Interval> equalClassSplits = equalClassSplit(column);
+		final FitRecorder recorder = getFitRecorder();
+		final long start = recorder.start();
+		final IntervalNode first = evaluateIntervals(equalClassSplits, column);
+		recorder.phase("merge", start);
 		final List<Double> actualCutPoints = new ArrayList<>(100);
-		for (int i = 0; i < evaluatedIntervals.size() - 1; i++) {
-			actualCutPoints.add((keyValuePairs.get(evaluatedIntervals.get(i).getEnd()).getKey()
-					+ keyValuePairs.get(evaluatedIntervals.get(i + 1).getBegin()).getKey()) / 2D);
+		for (IntervalNode node = first; node.next != null; node = node.next) {
+			actualCutPoints.add(column.getCutPoint(node.end));
 		}
 
-		return getDiscretizationTransitionsFromCutPoints(actualCutPoints, keyValuePairs.get(0).getKey(),
-				keyValuePairs.get(keyValuePairs.size() - 1).getKey());
+		return getDiscretizationTransitionsFromCutPoints(actualCutPoints, column.getMinValue(),
+				column.getMaxValue());
 	}
 
-	private List<Interval> evaluateIntervals(List<Interval> equalClassSplits,
-			final List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs) {
-		boolean improvement = true;
-
-		while (equalClassSplits.size() > 1 && improvement) {
-			int deleteIndex = 0;
-			double maxMergeCriterion = 0.0;
-			final double oldCriterion = determineDiscretizationCriterion(equalClassSplits);
-			for (int i = 0; i < equalClassSplits.size() - 1; i++) {
-				final List<Interval> possibleMergedInterval = mergeInterval(equalClassSplits, i, keyValuePairs);
-				final double mergeCriterion = oldCriterion - determineDiscretizationCriterion(possibleMergedInterval);
-				if (mergeCriterion > maxMergeCriterion) {
-					deleteIndex = i;
-					maxMergeCriterion = mergeCriterion;
-				}
+	/**
+	 * Repeatedly merges the adjacent pair of intervals improving the criterion the
+	 * most, leftmost first on ties, until no merge improves it.
+	 * <p>
+	 * The criterion is a sum of per-interval terms, so the gain of a merge only
+	 * depends on the two intervals. Gains are kept in a heap, entries of intervals
+	 * changed by a later merge are skipped when polled and only the pairs with the
+	 * new neighbours are added after a merge.
+	 *
+	 * @param equalClassSplits initial intervals, ordered
+	 * @param column           sorted runs the intervals refer to
+	 * @return the first of the remaining intervals
+	 */
+	private IntervalNode evaluateIntervals(List<Interval> equalClassSplits, final SupervisedColumn column) {
+		final ClassHistogram histogram = column.getClassHistogram();
+		final int m = column.getClassCount();
+		final int n = column.size();
+		final PriorityQueue<Merge> merges = new PriorityQueue<>();
+		IntervalNode first = null;
+		IntervalNode last = null;
+		long mergesCreated = 0;
+		long mergesApplied = 0;
+		for (final Interval interval : equalClassSplits) {
+			final IntervalNode node = new IntervalNode(interval.getBegin(), interval.getEnd(),
+					interval.getClassDist().clone());
+			node.criterion = determineIntervalCriterion(node.classDist, interval.getSize(), m, n);
+			if (last == null) {
+				first = node;
+			} else {
+				last.next = node;
+				node.prev = last;
+				merges.add(createMerge(last, node, histogram, m, n));
+				mergesCreated++;
 			}
+			last = node;
+		}
 
-			if (maxMergeCriterion > 0) {
-				equalClassSplits = mergeInterval(equalClassSplits, deleteIndex, keyValuePairs);
-			} else {
-				improvement = false;
+		Merge merge;
+		while ((merge = merges.poll()) != null) {
+			if (merge.isStale()) {
+				continue;
+			}
+			if (merge.gain <= 0) {
+				break;
+			}
+
+			final IntervalNode left = merge.left;
+			final IntervalNode right = merge.right;
+			left.end = right.end;
+			left.classDist = merge.classDist;
+			left.criterion = merge.criterion;
+			left.version++;
+			right.version++;
+			left.next = right.next;
+			mergesApplied++;
+			if (left.next != null) {
+				left.next.prev = left;
+				merges.add(createMerge(left, left.next, histogram, m, n));
+				mergesCreated++;
+			}
+			if (left.prev != null) {
+				merges.add(createMerge(left.prev, left, histogram, m, n));
+				mergesCreated++;
 			}
 		}
 
-		return equalClassSplits;
+		final FitRecorder recorder = getFitRecorder();
+		recorder.candidatesEvaluated(mergesCreated);
+		recorder.iterations(mergesApplied);
+		// The equal class intervals have been counted by equalClassSplit, each merge builds one more
+		recorder.intervalsBuilt(mergesApplied);
+		// Bounded by all nodes and merges created, each holding a class distribution
+		recorder.scratchBytes(mergesCreated * (48L + 4L * m) + equalClassSplits.size() * (48L + 4L * m));
+
+		return first;
+	}
+
+	/**
+	 * Counts the merged interval from the histogram, covering the runs of both
+	 * intervals
+	 */
+	private Merge createMerge(IntervalNode left, IntervalNode right, ClassHistogram histogram, int m, int n) {
+		final int[] classDist = histogram.classDistribution(left.begin, right.end);
+		final double criterion = determineIntervalCriterion(classDist, histogram.size(left.begin, right.end), m, n);
+		return new Merge(left, right, classDist, criterion, left.criterion + right.criterion - criterion);
 	}
 
 	/**
-	 * determines the Entropy of the given Intervals with the quadratic entropy
-	 * formula
+	 * determines the Entropy of a single Interval with the quadratic entropy
+	 * formula, the criterion of a discretization is the sum over its Intervals
 	 *
-	 * @param intervals to be evaluated
-	 * @return double from 0 to 1 with 0 being perfect entropy
+	 * @param classDist    class distribution of the interval to be evaluated
+	 * @param intervalsize size of the interval
+	 * @param m            number of possible classifications
+	 * @param n            number of instances
+	 * @return the Interval's share of the criterion, lower being better
 	 */
-	private double determineDiscretizationCriterion(List<Interval> intervals) {
-		double criterion = 0;
-		double quotient = 0;
-		double intervalClassSum;
+	private double determineIntervalCriterion(int[] classDist, int intervalsize, int m, int n) {
+		double quotient;
+		double intervalClassSum = 0;
 		final double mTimesLambda = m * lambda;
-		for (final Interval interval : intervals) {
-			intervalClassSum = 0;
-			final int intervalsize = interval.getSize();
-			for (int i = 0; i < m; i++) {
-				quotient = (interval.getClassDist()[i] + lambda) / (intervalsize + mTimesLambda);
-				intervalClassSum += (quotient * (1 - quotient));
-			}
-			double intervalSum = alpha * (intervalsize / (double) n) * intervalClassSum;
-			intervalSum += ((1 - alpha) * ((mTimesLambda) / intervalsize));
-			criterion += intervalSum;
+		for (int i = 0; i < m; i++) {
+			quotient = (classDist[i] + lambda) / (intervalsize + mTimesLambda);
+			intervalClassSum += (quotient * (1 - quotient));
 		}
-
-		return criterion;
+		double intervalSum = alpha * (intervalsize / (double) n) * intervalClassSum;
+		intervalSum += ((1 - alpha) * ((mTimesLambda) / intervalsize));
+		return intervalSum;
 	}
 
 	/**
-	 * merges Interval i and i+1,
-	 *
-	 * @param intervals     list of Interval to be reduced by one Element
-	 * @param i             index of element that will be merged
-	 * @param keyValuePairs list of values used for index
-	 * @return new List with Interval i and i+1 merged
+	 * Interval within the linked list of current intervals
 	 */
-	private List<Interval> mergeInterval(List<Interval> intervals, int i,
-			final List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs) {
-		final List<Interval> temp = new ArrayList<>(intervals.subList(0, intervals.size()));
-		final int mergeBegin = temp.get(i).getBegin();
-		final int mergeEnd = temp.get(i + 1).getEnd();
-		temp.add(i, new Interval(mergeBegin, mergeEnd, keyValuePairs));
-		temp.remove(i + 1);
-		temp.remove(i + 1);
-
-		return temp;
+	private static final class IntervalNode {
+		private final int begin;
+		private int end;
+		private int[] classDist;
+		private double criterion;
+		private IntervalNode prev;
+		private IntervalNode next;
+		/** Incremented whenever the interval is merged */
+		private int version;
+
+		private IntervalNode(int begin, int end, int[] classDist) {
+			this.begin = begin;
+			this.end = end;
+			this.classDist = classDist;
+		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Tentative merge of two neighbouring intervals, ordered by descending gain
+	 * and then by position
+	 */
+	private static final class Merge implements Comparable<Merge> {
+		private final IntervalNode left;
+		private final IntervalNode right;
+		private final int leftVersion;
+		private final int rightVersion;
+		private final int[] classDist;
+		private final double criterion;
+		private final double gain;
+
+		private Merge(IntervalNode left, IntervalNode right, int[] classDist, double criterion, double gain) {
+			this.left = left;
+			this.right = right;
+			this.leftVersion = left.version;
+			this.rightVersion = right.version;
+			this.classDist = classDist;
+			this.criterion = criterion;
+			this.gain = gain;
+		}
+
+		/**
+		 * @return true, if one of the intervals has been merged since
+		 */
+		private boolean isStale() {
+			return left.version != leftVersion || right.version != rightVersion;
+		}
+
+		@Override
+		public int compareTo(Merge other) {
+			final int byGain = Double.compare(other.gain, gain);
+			return (byGain != 0) ? byGain : Integer.compare(left.begin, other.left.begin);
+		}
+	}
+}
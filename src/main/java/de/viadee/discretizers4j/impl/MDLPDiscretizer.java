@@ -1,24 +1,49 @@
 package de.viadee.discretizers4j.impl;
 
 import de.viadee.discretizers4j.AbstractSupervisedDiscretizer;
+import de.viadee.discretizers4j.ClassHistogram;
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.FitRecorder;
 import de.viadee.discretizers4j.Interval;
+import de.viadee.discretizers4j.SupervisedColumn;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class MDLPDiscretizer extends AbstractSupervisedDiscretizer {
+    private static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 14;
 
-    private List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs;
-    private List<Integer> potentialCutPoints = new ArrayList<>(200);
-    private List<Integer> actualIntervalEnds = new ArrayList<>(20);
-    private Double[] targetValues;
+    private final ForkJoinPool pool;
+    private final int sequentialThreshold;
 
     /**
      * Constructs the MDLP Discretizer, MDLP works without any Parameters.
+     * <p>
+     * Large ranges are split in parallel on the common {@link ForkJoinPool}.
      */
     public MDLPDiscretizer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD);
+    }
+
+    /**
+     * Constructs the MDLP Discretizer searching the two halves of large ranges in parallel.
+     * <p>
+     * The cut points do not depend on the pool or threshold.
+     *
+     * @param pool                the pool to split sub-ranges on
+     * @param sequentialThreshold ranges with fewer values are split sequentially
+     */
+    public MDLPDiscretizer(ForkJoinPool pool, int sequentialThreshold) {
         super(true);
+        if (pool == null) {
+            throw new IllegalArgumentException("Fork join pool must not be null");
+        }
+        if (sequentialThreshold < 1) {
+            throw new IllegalArgumentException("Sequential threshold must be positive");
+        }
+        this.pool = pool;
+        this.sequentialThreshold = sequentialThreshold;
     }
 
     /**
@@ -27,108 +52,201 @@ public class MDLPDiscretizer extends AbstractSupervisedDiscretizer {
      * 3. Search for cut point which splits the values into the best "bi-partition".
      * 4. Repeat [3] for each part until no improvement is possible (recursive)
      *
-     * @param keyValuePairs List of Values and Labels
+     * @param column sorted Values and Labels
      * @return list of DiscretizationTransition determined to have the highest Ameva value
      */
     @Override
-    protected List<DiscretizationTransition> fitCreateTransitions(List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs) {
-        this.keyValuePairs = keyValuePairs;
-        targetValues = keyValuePairs.stream().map(AbstractMap.SimpleImmutableEntry::getValue).sorted().distinct().toArray(Double[]::new);
+    protected List<DiscretizationTransition> fitCreateTransitions(SupervisedColumn column) {
+        final int[] potentialCutPoints = equalClassSplit(column).stream().mapToInt(Interval::getEnd)
+                .sorted().distinct().toArray();
+        final FitRecorder recorder = getFitRecorder();
+        final long start = recorder.start();
+        final SplitSearch splitSearch = new SplitSearch(column, potentialCutPoints, sequentialThreshold, recorder);
+        final int[] actualIntervalEnds = pool.invoke(new SplitTask(splitSearch, 0, column.getRunCount() - 1, 1));
+        recorder.phase("splitSearch", start);
+        recorder.scratchBytes(4L * potentialCutPoints.length);
 
-        List<Interval> initialSplit = equalClassSplit(keyValuePairs);
+        List<Double> actualCutPoints = new ArrayList<>();
+        for (int end : actualIntervalEnds) {
+            actualCutPoints.add(column.getCutPoint(end));
+        }
 
+        return getDiscretizationTransitionsFromCutPoints(actualCutPoints, column.getMinValue(), column.getMaxValue());
+    }
 
-        for (Interval interval : initialSplit) {
-            potentialCutPoints.add(interval.getEnd());
+    /**
+     * (RECURSIVE) determines the best cut points for the runs from begin to end in the column.
+     * <p>
+     * The two halves of a split are independent, so large ones are forked. Each task returns the sorted interval ends
+     * of its range, which are concatenated around the chosen cut, keeping results deterministic.
+     */
+    private static final class SplitTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 4218741869237428914L;
+
+        private final transient SplitSearch splitSearch;
+        private final int begin;
+        private final int end;
+        private final int depth;
+
+        private SplitTask(SplitSearch splitSearch, int begin, int end, int depth) {
+            this.splitSearch = splitSearch;
+            this.begin = begin;
+            this.end = end;
+            this.depth = depth;
         }
-        determineIntervals(0, keyValuePairs.size() - 1);
 
-        List<Double> actualCutPoints = new ArrayList<>();
-        Collections.sort(actualIntervalEnds);
-        for (Integer end : actualIntervalEnds) {
-            actualCutPoints.add(
-                    (keyValuePairs.get(end).getKey()
-                            + keyValuePairs.get(end + 1).getKey())
-                            / 2D
-            );
-        }
+        @Override
+        protected int[] compute() {
+            splitSearch.recorder.recursionDepth(depth);
+            final int intervalEnd = splitSearch.determineBestIntervalEnd(begin, end);
+            if (intervalEnd < 0) {
+                return new int[0];
+            }
+            splitSearch.recorder.iterations(1);
+            splitSearch.recorder.intervalsBuilt(2);
+
+            final SplitTask left = new SplitTask(splitSearch, begin, intervalEnd, depth + 1);
+            final SplitTask right = new SplitTask(splitSearch, intervalEnd + 1, end, depth + 1);
+            final int[] leftEnds;
+            final int[] rightEnds;
+            if (splitSearch.histogram.size(begin, end) >= splitSearch.sequentialThreshold) {
+                left.fork();
+                rightEnds = right.compute();
+                leftEnds = left.join();
+            } else {
+                leftEnds = left.compute();
+                rightEnds = right.compute();
+            }
 
-        return getDiscretizationTransitionsFromCutPoints(actualCutPoints, keyValuePairs.get(0).getKey(), keyValuePairs.get(keyValuePairs.size() - 1).getKey());
+            final int[] intervalEnds = new int[leftEnds.length + 1 + rightEnds.length];
+            System.arraycopy(leftEnds, 0, intervalEnds, 0, leftEnds.length);
+            intervalEnds[leftEnds.length] = intervalEnd;
+            System.arraycopy(rightEnds, 0, intervalEnds, leftEnds.length + 1, rightEnds.length);
+            return intervalEnds;
+        }
     }
 
     /**
-     * (RECURSIVE) determine the best cut points for value from index begin to end in keyValuePairs.
-     *
-     * @param begin begin index of Interval
-     * @param end   end index of Interval
+     * Read-only state of a single fit, shared by all {@link SplitTask}s
      */
-    private void determineIntervals(int begin, int end) {
-        double mdlpcMax = 0;
-        int valueMax = -1;
-        int posMax = -1;
-        List<Integer> reducedPotentialIntervalEnds = potentialCutPoints.stream()
-                .filter(intervalEnd -> intervalEnd >= begin
-                        && intervalEnd <= end)
-                .collect(Collectors.toList());
-        for (int i = 0; i < reducedPotentialIntervalEnds.size(); i++) {
-            double mdlpc = determineMDLPCCriterion(begin, end, reducedPotentialIntervalEnds.get(i));
-            if (mdlpcMax < mdlpc) {
-                mdlpcMax = mdlpc;
-                posMax = i;
-                valueMax = reducedPotentialIntervalEnds.get(i);
+    private static final class SplitSearch {
+        private final ClassHistogram histogram;
+        private final int[] potentialCutPoints;
+        private final int classCount;
+        private final int sequentialThreshold;
+        private final FitRecorder recorder;
+
+        private SplitSearch(SupervisedColumn column, int[] potentialCutPoints, int sequentialThreshold,
+                            FitRecorder recorder) {
+            this.histogram = column.getClassHistogram();
+            this.potentialCutPoints = potentialCutPoints;
+            this.classCount = column.getClassCount();
+            this.sequentialThreshold = sequentialThreshold;
+            this.recorder = recorder;
+        }
+
+        /**
+         * Sweeps the potential cut points within the range from left to right. The class counts left of each cut
+         * point are taken from the {@link ClassHistogram}, the ones to the right are the remainder of the complete
+         * range. So a level costs O(candidates * m) and the complete range's entropy is computed only once.
+         *
+         * @param begin first run of Interval
+         * @param end   last run of Interval, inclusive
+         * @return the end of the left interval of the best bi-partition, or -1 if splitting does not pay off
+         */
+        private int determineBestIntervalEnd(int begin, int end) {
+            final int size = histogram.size(begin, end);
+            final int[] completeDist = histogram.classDistribution(begin, end);
+            final double entropyComplete = computeEntropy(completeDist, size);
+            final int[] leftDist = new int[classCount];
+            final int[] rightDist = new int[classCount];
+
+            double mdlpcMax = 0;
+            int valueMax = -1;
+            final int firstCandidate = firstPotentialCutPoint(begin);
+            int c = firstCandidate;
+            // A cut point at the range's end would leave an empty right side, which never scores
+            for (; c < potentialCutPoints.length && potentialCutPoints[c] < end; c++) {
+                final int intervalEnd = potentialCutPoints[c];
+                histogram.classDistribution(begin, intervalEnd, leftDist);
+                final int leftSize = histogram.size(begin, intervalEnd);
+                for (int i = 0; i < classCount; i++) {
+                    rightDist[i] = completeDist[i] - leftDist[i];
+                }
+
+                double mdlpc = determineMDLPCCriterion(size, entropyComplete,
+                        leftDist, leftSize, rightDist, size - leftSize);
+                if (mdlpcMax < mdlpc) {
+                    mdlpcMax = mdlpc;
+                    valueMax = intervalEnd;
+                }
             }
+
+            recorder.candidatesEvaluated(c - firstCandidate);
+
+            return (mdlpcMax > 0) ? valueMax : -1;
         }
 
-        if (mdlpcMax > 0) {
-            actualIntervalEnds.add(valueMax);
-            determineIntervals(begin, reducedPotentialIntervalEnds.get(posMax));
-            determineIntervals(reducedPotentialIntervalEnds.get(posMax) + 1, end);
+        /**
+         * @param begin first run of a range
+         * @return the position of the first potential cut point not before begin
+         */
+        private int firstPotentialCutPoint(int begin) {
+            final int position = Arrays.binarySearch(potentialCutPoints, begin);
+            return (position >= 0) ? position : -position - 1;
         }
-    }
 
-    private double determineMDLPCCriterion(Integer begin, Integer end, Integer i) {
-        Interval completeInterval = new Interval(begin, end, keyValuePairs);
-        Interval leftInterval = new Interval(begin, i, keyValuePairs);
-        long leftCD = Arrays.stream(leftInterval.getClassDist()).filter(label -> label != 0).count();
-        Interval rightInterval = new Interval(i + 1, end, keyValuePairs);
-        long rightCD = Arrays.stream(rightInterval.getClassDist()).filter(label -> label != 0).count();
-
-        double entropyComplete = computeEntropy(completeInterval);
-        double entropyLeft = computeEntropy(leftInterval);
-        double entropyRight = computeEntropy(rightInterval);
-
-        double gain = entropyComplete -
-                ((leftInterval.getSize() / (double) completeInterval.getSize()) * entropyLeft
-                        + (rightInterval.getSize() / (double) completeInterval.getSize()) * entropyRight);
-
-        double delta = log2(Math.pow(3, targetValues.length) - 2)
-                - (targetValues.length * entropyComplete
-                - leftCD * entropyLeft
-                - rightCD * entropyRight);
-        return gain - (log2(completeInterval.getSize() - 1.0)) / (double) completeInterval.getSize()
-                - delta / (double) completeInterval.getSize();
-    }
+        private double determineMDLPCCriterion(int completeSize, double entropyComplete,
+                                               int[] leftDist, int leftSize, int[] rightDist, int rightSize) {
+            long leftCD = countPresentClasses(leftDist);
+            long rightCD = countPresentClasses(rightDist);
 
-    /**
-     * determines the entropy of an interval
-     *
-     * @param interval {@link Interval} to be evaluated
-     * @return double value of "Shannon's Entropy".
-     */
-    private double computeEntropy(Interval interval) {
-        double entropy = 0;
-        for (int i = 0; i < targetValues.length; i++) {
-            entropy += (interval.getClassDist()[i] / (double) interval.getSize())
-                    * log2((interval.getClassDist()[i] / (double) interval.getSize()));
+            double entropyLeft = computeEntropy(leftDist, leftSize);
+            double entropyRight = computeEntropy(rightDist, rightSize);
+
+            double gain = entropyComplete -
+                    ((leftSize / (double) completeSize) * entropyLeft
+                            + (rightSize / (double) completeSize) * entropyRight);
+
+            double delta = log2(Math.pow(3, classCount) - 2)
+                    - (classCount * entropyComplete
+                    - leftCD * entropyLeft
+                    - rightCD * entropyRight);
+            return gain - (log2(completeSize - 1.0)) / (double) completeSize
+                    - delta / (double) completeSize;
         }
-        return -1 * entropy;
-    }
 
+        private long countPresentClasses(int[] classDist) {
+            long presentClasses = 0;
+            for (int i = 0; i < classCount; i++) {
+                if (classDist[i] != 0) {
+                    presentClasses++;
+                }
+            }
+            return presentClasses;
+        }
 
-    private double log2(double value) {
-        if (value == 0D) {
-            return 0D;
+        /**
+         * determines the entropy of an interval
+         *
+         * @param classDist class distribution of the interval to be evaluated
+         * @param size      size of the interval
+         * @return double value of "Shannon's Entropy".
+         */
+        private double computeEntropy(int[] classDist, int size) {
+            double entropy = 0;
+            for (int i = 0; i < classCount; i++) {
+                entropy += (classDist[i] / (double) size)
+                        * log2((classDist[i] / (double) size));
+            }
+            return -1 * entropy;
+        }
+
+        private double log2(double value) {
+            if (value == 0D) {
+                return 0D;
+            }
+            return Math.log(value) / Math.log(2);
         }
-        return Math.log(value) / Math.log(2);
     }
 }
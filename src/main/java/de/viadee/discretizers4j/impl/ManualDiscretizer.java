@@ -1,13 +1,15 @@
 package de.viadee.discretizers4j.impl;
 
 import de.viadee.discretizers4j.AbstractDiscretizer;
+import de.viadee.discretizers4j.AbstractStreamingFitter;
 import de.viadee.discretizers4j.DiscretizationTransition;
 import de.viadee.discretizers4j.NumericDiscretizationOrigin;
+import de.viadee.discretizers4j.SortedColumn;
+import de.viadee.discretizers4j.StreamingFitter;
 
 import java.io.Serializable;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Discretizer allowing to specify custom classes.
@@ -43,17 +45,46 @@ public class ManualDiscretizer extends AbstractDiscretizer {
     }
 
     @Override
-    protected List<DiscretizationTransition> fitCreateTransitions(Serializable[] values, Double[] labels) {
-        final List<DiscretizationTransition> result = new ArrayList<>();
+    protected List<DiscretizationTransition> fitCreateTransitions(SortedColumn column) {
+        return fitCreateTransitions(column.getMinValue(), column.getMaxValue());
+    }
 
-        final List<Double> streamedValues = Stream.of(values).map(v -> ((Number) v).doubleValue()).collect(Collectors.toList());
+    /**
+     * Finds minimum and maximum in a single pass instead of sorting, as the transitions depend on nothing else
+     *
+     * @param values the values to be fitted on
+     * @return the transitions between the class boundaries
+     */
+    @Override
+    protected List<DiscretizationTransition> fitCreateTransitions(double[] values) {
+        double minValue = values[0];
+        double maxValue = values[0];
+        for (double value : values) {
+            if (Double.compare(value, minValue) < 0) {
+                minValue = value;
+            } else if (Double.compare(value, maxValue) > 0) {
+                maxValue = value;
+            }
+        }
+        return fitCreateTransitions(minValue, maxValue);
+    }
+
+    /**
+     * Creates the transitions between the class boundaries, widened to the domain
+     *
+     * @param minValue the smallest value of the domain
+     * @param maxValue the largest value of the domain
+     * @return the transitions
+     */
+    List<DiscretizationTransition> fitCreateTransitions(double minValue, double maxValue) {
+        final List<DiscretizationTransition> result = new ArrayList<>();
 
         final Double min = classBoundaries.isEmpty()
-                ? Collections.min(streamedValues)
-                : Math.min(Collections.min(streamedValues), Collections.min(classBoundaries));
+                ? minValue
+                : Math.min(minValue, classBoundaries.first());
         final Double max = classBoundaries.isEmpty()
-                ? Collections.max(streamedValues)
-                : Math.max(Collections.max(streamedValues), Collections.max(classBoundaries));
+                ? maxValue
+                : Math.max(maxValue, classBoundaries.last());
 
         Double currentLowerBoundary = min;
 
@@ -75,4 +106,34 @@ public class ManualDiscretizer extends AbstractDiscretizer {
 
         return result;
     }
+
+    /**
+     * Opens a fitter tracking minimum and maximum of the chunks fed, the only properties of the domain this
+     * discretizer depends on. Results equal those of {@link #fit(Serializable[])} on all values fed.
+     *
+     * @return the fitter of this discretizer
+     */
+    public StreamingFitter<ManualDiscretizer> streamingFitter() {
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+        return new AbstractStreamingFitter<ManualDiscretizer>(false) {
+            private double min = Double.POSITIVE_INFINITY;
+            private double max = Double.NEGATIVE_INFINITY;
+            private long count;
+
+            @Override
+            protected void feedValue(double value, Double label) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                count++;
+            }
+
+            @Override
+            protected ManualDiscretizer fitSummary() {
+                fit((count == 0) ? new double[0] : new double[]{min, max});
+                return ManualDiscretizer.this;
+            }
+        };
+    }
 }
@@ -1,20 +1,24 @@
 package de.viadee.discretizers4j.impl;
 
 import de.viadee.discretizers4j.AbstractDiscretizer;
+import de.viadee.discretizers4j.AbstractStreamingFitter;
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.FitRecorder;
+import de.viadee.discretizers4j.OrderStatistics;
+import de.viadee.discretizers4j.QuantileSketch;
+import de.viadee.discretizers4j.SortedColumn;
+import de.viadee.discretizers4j.StreamingFitter;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Discretizer partitioning data into n specified classes using their mean values as a class label
  */
 public class PercentileMedianDiscretizer extends AbstractDiscretizer {
-    private int classCount;
+    private final int classCount;
 
     /**
      * Constructs the instance
@@ -26,30 +30,124 @@ public class PercentileMedianDiscretizer extends AbstractDiscretizer {
         this.classCount = classCount;
     }
 
+    /**
+     * Fits the discretizer on a sketch of the domain instead of the values themselves, so columns need not fit into
+     * memory.
+     * <p>
+     * Cut points are placed between the values at the same ranks as for {@link #fit(Serializable[])}, each rank being
+     * off by at most {@link QuantileSketch#getRankErrorBound()}. Minimum and maximum are exact.
+     *
+     * @param sketch sketch of all values that might get asked to discretize, possibly merged from several shards
+     */
+    public void fit(QuantileSketch sketch) {
+        if (sketch == null || sketch.getCount() == 0) {
+            throw new IllegalArgumentException("No values for fitting procedure passed");
+        }
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+
+        final long[] cutRanks = determineCutRanks(sketch.getCount());
+        final double[] cutValues = sketch.getValuesAtRanks(cutRanks);
+        setDiscretizationTransitions(getDiscretizationTransitionsFromCutPoints(midPoints(cutValues),
+                sketch.getMinValue(), sketch.getMaxValue()));
+    }
+
+    /**
+     * Selects the values around each cut point and the extremes instead of sorting all values. Results equal those of
+     * fitting on the sorted column.
+     *
+     * @param values the values to be fitted on, reordered in place
+     * @return the transitions
+     */
     @Override
-    protected List<DiscretizationTransition> fitCreateTransitions(Serializable[] values, Double[] labels) {
+    protected List<DiscretizationTransition> fitCreateTransitions(double[] values) {
+        final FitRecorder recorder = getFitRecorder();
+        final long start = recorder.start();
+        final long[] cutRanks = determineCutRanks(values.length);
+        final int[] ranks = new int[cutRanks.length + 2];
+        ranks[0] = 0;
+        ranks[1] = values.length - 1;
+        for (int i = 0; i < cutRanks.length; i++) {
+            ranks[i + 2] = (int) cutRanks[i];
+        }
+        final double[] selectedValues = OrderStatistics.select(values, ranks);
+        recorder.phase("select", start);
+        // The copy of the values selected in, besides the ranks
+        recorder.scratchBytes(8L * values.length + 20L * ranks.length);
 
-        List<Number> numbers = Stream.of(values).map(i -> (Number) i)
-                .sorted(Comparator.comparingDouble(Number::doubleValue))
-                .collect(Collectors.toList());
+        return getDiscretizationTransitionsFromCutPoints(
+                midPoints(Arrays.copyOfRange(selectedValues, 2, selectedValues.length)),
+                selectedValues[0], selectedValues[1]);
+    }
+
+    @Override
+    protected List<DiscretizationTransition> fitCreateTransitions(SortedColumn column) {
+        final long[] cutRanks = determineCutRanks(column.size());
+        final double[] cutValues = new double[cutRanks.length];
+        for (int i = 0; i < cutRanks.length; i++) {
+            cutValues[i] = column.getValue((int) cutRanks[i]);
+        }
 
-        List<Double> actualCutPoints = new ArrayList<>();
+        return getDiscretizationTransitionsFromCutPoints(midPoints(cutValues), column.getMinValue(), column.getMaxValue());
+    }
 
-        final int classes = Math.min(classCount, numbers.size());
-        final int countPerClass = numbers.size() / classes;
-        int backlog = numbers.size() % classes;
-        int endIndex = countPerClass - 1;
+    /**
+     * Determines the ranks around each cut point of equally sized classes, the first ones getting one value more if
+     * the count is not divisible
+     *
+     * @param count number of values
+     * @return the ranks of the last value of a class and the first of the next one, for each cut point
+     */
+    private long[] determineCutRanks(long count) {
+        final int classes = (int) Math.min(classCount, count);
+        final long countPerClass = count / classes;
+        long backlog = count % classes;
+        long endIndex = countPerClass - 1;
+        final long[] cutRanks = new long[2 * Math.max(0, classes - 1)];
         for (int currentClass = 1; currentClass < classes; currentClass++) {
             if (backlog > 0) {
                 endIndex++;
                 backlog--;
             }
-            actualCutPoints.add(
-                    (((Number) values[endIndex]).doubleValue()
-                            + ((Number) values[endIndex + 1]).doubleValue()) / 2);
+            cutRanks[2 * (currentClass - 1)] = endIndex;
+            cutRanks[2 * (currentClass - 1) + 1] = endIndex + 1;
             endIndex = endIndex + countPerClass;
         }
+        return cutRanks;
+    }
+
+    private static List<Double> midPoints(double[] cutValues) {
+        final List<Double> actualCutPoints = new ArrayList<>();
+        for (int i = 0; i < cutValues.length; i += 2) {
+            actualCutPoints.add((cutValues[i] + cutValues[i + 1]) / 2);
+        }
+        return actualCutPoints;
+    }
+
+    /**
+     * Opens a fitter summarizing the chunks fed by a {@link QuantileSketch}. Results equal those of
+     * {@link #fit(QuantileSketch)} on a sketch of all values fed.
+     *
+     * @return the fitter of this discretizer
+     */
+    public StreamingFitter<PercentileMedianDiscretizer> streamingFitter() {
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+        return new AbstractStreamingFitter<PercentileMedianDiscretizer>(false) {
+            private final QuantileSketch sketch = new QuantileSketch();
+
+            @Override
+            protected void feedValue(double value, Double label) {
+                sketch.update(value);
+            }
 
-        return getDiscretizationTransitionsFromCutPoints(actualCutPoints, ((Number) values[0]).doubleValue(), ((Number) values[values.length - 1]).doubleValue());
+            @Override
+            protected PercentileMedianDiscretizer fitSummary() {
+                fit(sketch);
+                return PercentileMedianDiscretizer.this;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -2,13 +2,13 @@ package de.viadee.discretizers4j.impl;
 
 import de.viadee.discretizers4j.AbstractDiscretizer;
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.SortedColumn;
 
-import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Reference discretizer to establish a baseline to compare advanced, supervised
@@ -26,10 +26,38 @@ public class RandomDiscretizer extends AbstractDiscretizer {
     }
 
     @Override
-    protected List<DiscretizationTransition> fitCreateTransitions(Serializable[] values, Double[] labels) {
+    protected List<DiscretizationTransition> fitCreateTransitions(SortedColumn column) {
 
-        final List<Double> valuesDistinct = Stream.of(values).distinct().map(v -> ((Number) v).doubleValue()).sorted()
-                .collect(Collectors.toList());
+        final List<Double> valuesDistinct = new ArrayList<>(column.getRunCount());
+        for (int run = 0; run < column.getRunCount(); run++) {
+            valuesDistinct.add(column.getRunValue(run));
+        }
+
+        return fitCreateTransitions(valuesDistinct);
+    }
+
+    /**
+     * Collects the distinct values of the values sorted in place, without building a {@link SortedColumn}
+     *
+     * @param values the values to be fitted on, reordered in place
+     * @return transitions between randomly chosen cut points
+     */
+    @Override
+    protected List<DiscretizationTransition> fitCreateTransitions(double[] values) {
+        Arrays.sort(values);
+        final List<Double> valuesDistinct = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || Double.compare(values[i], values[i - 1]) != 0) {
+                valuesDistinct.add(values[i]);
+            }
+        }
+
+        return fitCreateTransitions(valuesDistinct);
+    }
+
+    private List<DiscretizationTransition> fitCreateTransitions(List<Double> valuesDistinct) {
+        final double minValue = valuesDistinct.get(0);
+        final double maxValue = valuesDistinct.get(valuesDistinct.size() - 1);
 
         final int numberCuts = random.nextInt(valuesDistinct.size() + 1);
         final Double[] cutPoints = new Double[numberCuts];
@@ -41,6 +69,6 @@ public class RandomDiscretizer extends AbstractDiscretizer {
 
         final ManualDiscretizer manualDiscretizer = new ManualDiscretizer(cutPoints);
 
-        return manualDiscretizer.fitCreateTransitions(values, null);
+        return manualDiscretizer.fitCreateTransitions(minValue, maxValue);
     }
 }
@@ -1,13 +1,20 @@
 package de.viadee.discretizers4j.impl;
 
 import de.viadee.discretizers4j.AbstractDiscretizer;
+import de.viadee.discretizers4j.AbstractStreamingFitter;
 import de.viadee.discretizers4j.CategoricalDiscretizationOrigin;
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.SortedColumn;
+import de.viadee.discretizers4j.StreamingFitter;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -25,6 +32,7 @@ public class UniqueValueDiscretizer extends AbstractDiscretizer {
 
     @Override
     protected List<DiscretizationTransition> fitCreateTransitions(Serializable[] values, Double[] labels) {
+        Arrays.sort(values);
         final Map<Serializable, Integer> valueToIndexDiscretizer = new HashMap<>();
 
         int index = 0;
@@ -39,4 +47,84 @@ public class UniqueValueDiscretizer extends AbstractDiscretizer {
                 new DiscretizationTransition(new CategoricalDiscretizationOrigin(e.getKey()), e.getValue().doubleValue()))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Maps each distinct value to its rank, as {@link #fit(Serializable[])} does for numbers
+     *
+     * @param column the sorted values to be fitted on
+     * @return a transition per distinct value
+     */
+    @Override
+    protected List<DiscretizationTransition> fitCreateTransitions(SortedColumn column) {
+        final List<DiscretizationTransition> result = new ArrayList<>(column.getRunCount());
+        for (int run = 0; run < column.getRunCount(); run++) {
+            result.add(new DiscretizationTransition(new CategoricalDiscretizationOrigin(column.getRunValue(run)), (double) run));
+        }
+        return result;
+    }
+
+    /**
+     * Maps each distinct value to its rank like {@link #fitCreateTransitions(SortedColumn)}, sorting the values in place
+     * without building a {@link SortedColumn}
+     *
+     * @param values the values to be fitted on, reordered in place
+     * @return a transition per distinct value
+     */
+    @Override
+    protected List<DiscretizationTransition> fitCreateTransitions(double[] values) {
+        Arrays.sort(values);
+        final List<DiscretizationTransition> result = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || Double.compare(values[i], values[i - 1]) != 0) {
+                result.add(new DiscretizationTransition(new CategoricalDiscretizationOrigin(values[i]),
+                        (double) result.size()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Opens a fitter keeping the distinct values of the chunks fed, so memory depends on the number of levels only.
+     * Results equal those of {@link #fit(Serializable[])} on all values fed.
+     * <p>
+     * Levels keep the type of the values fed: values fed as double[] are kept as {@link Double}, as by
+     * {@link #fit(double[])}, values fed as Serializable[] keep their own type, as by {@link #fit(Serializable[])}.
+     * Values of different types cannot be ordered, so they are rejected.
+     *
+     * @return the fitter of this discretizer
+     */
+    public StreamingFitter<UniqueValueDiscretizer> streamingFitter() {
+        if (isFitted()) {
+            throw new IllegalArgumentException("Discretizer has already been fitted");
+        }
+        return new AbstractStreamingFitter<UniqueValueDiscretizer>(false) {
+            private final Set<Serializable> distinctValues = new HashSet<>();
+            private Class<?> levelType;
+
+            @Override
+            protected void feedValue(double value, Double label) {
+                feedValue((Serializable) value, label);
+            }
+
+            @Override
+            protected void feedValue(Serializable value, Double label) {
+                if (value == null) {
+                    throw new IllegalArgumentException("Values must not be null");
+                }
+                if (levelType == null) {
+                    levelType = value.getClass();
+                } else if (value.getClass() != levelType) {
+                    throw new IllegalArgumentException("Values of type " + value.getClass().getName()
+                            + " cannot be discretized along with values of type " + levelType.getName());
+                }
+                distinctValues.add(value);
+            }
+
+            @Override
+            protected UniqueValueDiscretizer fitSummary() {
+                fit(distinctValues.toArray(new Serializable[0]));
+                return UniqueValueDiscretizer.this;
+            }
+        };
+    }
 }
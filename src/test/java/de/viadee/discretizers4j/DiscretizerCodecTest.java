@@ -0,0 +1,130 @@
+package de.viadee.discretizers4j;
+
+import de.viadee.discretizers4j.impl.MDLPDiscretizer;
+import de.viadee.discretizers4j.impl.PercentileMedianDiscretizer;
+import de.viadee.discretizers4j.impl.UniqueValueDiscretizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscretizerCodecTest {
+
+    private static FittedDiscretizer roundTrip(Discretizer discretizer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(out)) {
+            DiscretizerCodec.write(discretizer, channel);
+        }
+        try (ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(out.toByteArray()))) {
+            return DiscretizerCodec.read(channel);
+        }
+    }
+
+    @Test
+    void testNumericRoundTrip() throws IOException {
+        Random random = new Random(23);
+        double[] values = random.doubles(2000, -10, 10).toArray();
+        int[] classIndices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            classIndices[i] = (values[i] < -3 ? 0 : values[i] < 4 ? 1 : 2);
+        }
+        MDLPDiscretizer mdlpDiscretizer = new MDLPDiscretizer();
+        mdlpDiscretizer.fit(values, classIndices);
+
+        FittedDiscretizer loaded = roundTrip(mdlpDiscretizer);
+
+        assertEquals(mdlpDiscretizer.getTransitions().toString(), loaded.getTransitions().toString());
+        double[] data = random.doubles(1000, -20, 20).toArray();
+        data[0] = Double.NEGATIVE_INFINITY;
+        data[1] = Double.POSITIVE_INFINITY;
+        assertArrayEquals(mdlpDiscretizer.apply(data), loaded.apply(data));
+        assertArrayEquals(mdlpDiscretizer.applyToIndex(data), loaded.applyToIndex(data));
+        assertThrows(IllegalArgumentException.class, () -> loaded.fit(new Serializable[]{1D}));
+    }
+
+    @Test
+    void testCategoricalRoundTrip() throws IOException {
+        UniqueValueDiscretizer uniqueValueDiscretizer = new UniqueValueDiscretizer();
+        uniqueValueDiscretizer.fit(new String[]{"a", "b", "ä", "long level", "b"});
+
+        FittedDiscretizer loaded = roundTrip(uniqueValueDiscretizer);
+
+        String[] data = {"long level", "ä", "b", "a"};
+        assertArrayEquals(uniqueValueDiscretizer.apply(data), loaded.apply(data));
+        assertThrows(IllegalArgumentException.class, () -> loaded.apply("c"));
+    }
+
+    @Test
+    void testConsecutiveModelsInOneBuffer() {
+        PercentileMedianDiscretizer first = new PercentileMedianDiscretizer(3);
+        first.fit(new Integer[]{1, 2, 3, 4, 5, 6});
+        UniqueValueDiscretizer second = new UniqueValueDiscretizer();
+        second.fit(new Integer[]{7, 8, 9});
+
+        ByteBuffer firstModel = DiscretizerCodec.encode(first);
+        ByteBuffer secondModel = DiscretizerCodec.encode(second);
+        ByteBuffer buffer = ByteBuffer.allocate(firstModel.remaining() + secondModel.remaining());
+        buffer.put(firstModel).put(secondModel).flip();
+
+        assertEquals(first.getTransitions().toString(), DiscretizerCodec.decode(buffer).getTransitions().toString());
+        assertArrayEquals(new Double[]{0D, 1D, 2D}, DiscretizerCodec.decode(buffer).apply(new Integer[]{7, 8, 9}));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void testLargeModelRoundTrip() throws IOException {
+        String[] levels = new String[20000];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = "level " + i;
+        }
+        UniqueValueDiscretizer uniqueValueDiscretizer = new UniqueValueDiscretizer();
+        uniqueValueDiscretizer.fit(levels);
+
+        // Larger than the first chunk read from channels of unknown size
+        assertTrue(DiscretizerCodec.encode(uniqueValueDiscretizer).remaining() > 1 << 17);
+        FittedDiscretizer loaded = roundTrip(uniqueValueDiscretizer);
+        assertArrayEquals(uniqueValueDiscretizer.apply(levels), loaded.apply(levels));
+    }
+
+    @Test
+    void testRejectsForeignData() {
+        assertThrows(IllegalArgumentException.class, () -> DiscretizerCodec.decode(ByteBuffer.allocate(32)));
+    }
+
+    @Test
+    void testRejectsCorruptLengthsBeforeReadingPayload() throws IOException {
+        PercentileMedianDiscretizer percentileMedianDiscretizer = new PercentileMedianDiscretizer(3);
+        percentileMedianDiscretizer.fit(new Integer[]{1, 2, 3, 4, 5, 6});
+        ByteBuffer header = DiscretizerCodec.encode(percentileMedianDiscretizer).order(ByteOrder.LITTLE_ENDIAN);
+        header.limit(16);
+
+        // A payload length not matching the transition count
+        header.putInt(12, Integer.MAX_VALUE - 8);
+        assertThrows(IllegalArgumentException.class, () -> read(header.duplicate()));
+
+        // A consistent header announcing almost 2 GB, followed by nothing
+        header.putInt(8, 80000000).putInt(12, 3 * Double.BYTES * 80000000);
+        assertThrows(IllegalArgumentException.class, () -> read(header.duplicate()));
+
+        // Foreign bytes are rejected by their magic number
+        header.putInt(0, 0x7F454C46);
+        assertThrows(IllegalArgumentException.class, () -> read(header.duplicate()));
+    }
+
+    private static FittedDiscretizer read(ByteBuffer bytes) throws IOException {
+        try (ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes.array(), 0,
+                bytes.limit()))) {
+            return DiscretizerCodec.read(channel);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package de.viadee.discretizers4j;
+
+import de.viadee.discretizers4j.impl.MDLPDiscretizer;
+import de.viadee.discretizers4j.impl.PercentileMedianDiscretizer;
+import de.viadee.discretizers4j.impl.UniqueValueDiscretizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscretizerRegistryTest {
+
+    @Test
+    void testLazyLoadingWithBoundedCache() throws IOException {
+        Random random = new Random(29);
+        Map<String, AbstractDiscretizer> models = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            double[] values = random.doubles(500, 0, 100).toArray();
+            int[] classIndices = new int[values.length];
+            for (int v = 0; v < values.length; v++) {
+                classIndices[v] = (int) (values[v] / (10 + i)) % 3;
+            }
+            MDLPDiscretizer mdlpDiscretizer = new MDLPDiscretizer();
+            mdlpDiscretizer.fit(values, classIndices);
+            models.put("column" + i, mdlpDiscretizer);
+        }
+        UniqueValueDiscretizer uniqueValueDiscretizer = new UniqueValueDiscretizer();
+        uniqueValueDiscretizer.fit(new Double[]{1D, 5D, 9D});
+        models.put("levels", uniqueValueDiscretizer);
+
+        Path path = Files.createTempFile("discretizers", ".bin");
+        try {
+            DiscretizerRegistry.write(path, models);
+            try (DiscretizerRegistry registry = DiscretizerRegistry.open(path, 5)) {
+                assertEquals(models.keySet(), registry.keySet());
+                assertEquals(0, registry.getHydratedModelCount());
+
+                double[] data = random.doubles(200, -10, 110).toArray();
+                for (Map.Entry<String, AbstractDiscretizer> model : models.entrySet()) {
+                    if (model.getValue() instanceof MDLPDiscretizer) {
+                        assertArrayEquals(model.getValue().apply(data), registry.apply(model.getKey(), data));
+                    }
+                    assertTrue(registry.getHydratedModelCount() <= 5);
+                }
+                assertArrayEquals(new double[]{2D, 0D}, registry.apply("levels", new double[]{9D, 1D}));
+                assertSame(registry.get("levels"), registry.get("levels"));
+                assertThrows(IllegalArgumentException.class, () -> registry.get("unknown"));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static Map<String, Discretizer> percentileModel(int classCount) {
+        PercentileMedianDiscretizer percentileMedianDiscretizer = new PercentileMedianDiscretizer(classCount);
+        percentileMedianDiscretizer.fit(new Integer[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        return Collections.singletonMap("column", percentileMedianDiscretizer);
+    }
+
+    @Test
+    void testRewriteLeavesOpenRegistriesIntact() throws IOException {
+        Path directory = Files.createTempDirectory("discretizers");
+        Path path = directory.resolve("registry.bin");
+        try {
+            DiscretizerRegistry.write(path, percentileModel(3));
+            try (DiscretizerRegistry former = DiscretizerRegistry.open(path, 1)) {
+                DiscretizerRegistry.write(path, percentileModel(9));
+                try (DiscretizerRegistry current = DiscretizerRegistry.open(path, 1)) {
+                    assertEquals(3, former.get("column").getTransitions().size());
+                    assertEquals(9, current.get("column").getTransitions().size());
+                }
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(Collections.singletonList(path), files.collect(Collectors.toList()));
+            }
+        } finally {
+            Files.delete(path);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void testRejectsCorruptIndex() throws IOException {
+        Path path = Files.createTempFile("discretizers", ".bin");
+        try {
+            DiscretizerRegistry.write(path, percentileModel(3));
+            byte[] file = Files.readAllBytes(path);
+            // Model count at 8, the first entry's key length at 12, offset at 22 and model length at 30
+            for (int[] corruption : new int[][]{{8, -1}, {8, 1 << 28}, {12, -5}, {12, Integer.MAX_VALUE}, {30, -8},
+                    {30, 1 << 20}}) {
+                ByteBuffer corrupt = ByteBuffer.wrap(file.clone()).order(ByteOrder.LITTLE_ENDIAN);
+                corrupt.putInt(corruption[0], corruption[1]);
+                Files.write(path, corrupt.array());
+                assertThrows(IllegalArgumentException.class, () -> DiscretizerRegistry.open(path, 1).close(),
+                        Arrays.toString(corruption));
+            }
+            Files.write(path, Arrays.copyOf(file, 20));
+            assertThrows(IllegalArgumentException.class, () -> DiscretizerRegistry.open(path, 1).close());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testClosedRegistryRejectsAccess() throws IOException {
+        Path path = Files.createTempFile("discretizers", ".bin");
+        try {
+            DiscretizerRegistry.write(path, percentileModel(3));
+            DiscretizerRegistry registry = DiscretizerRegistry.open(path, 1);
+            registry.get("column");
+            registry.close();
+            assertThrows(IllegalStateException.class, () -> registry.get("column"));
+            assertThrows(IllegalStateException.class, () -> registry.apply("column", new double[]{1D}));
+            assertThrows(IllegalStateException.class, () -> registry.containsKey("column"));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package de.viadee.discretizers4j;
+
+import de.viadee.discretizers4j.impl.AmevaDiscretizer;
+import de.viadee.discretizers4j.impl.FUSINTERDiscretizer;
+import de.viadee.discretizers4j.impl.MDLPDiscretizer;
+import de.viadee.discretizers4j.impl.PercentileMedianDiscretizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableDiscretizerTest {
+
+    private static double[][] columns(int columnCount, int rowCount, Random random) {
+        double[][] columns = new double[columnCount][rowCount];
+        for (double[] column : columns) {
+            for (int r = 0; r < rowCount; r++) {
+                column[r] = random.nextInt(200) / 2D;
+            }
+        }
+        return columns;
+    }
+
+    private static Serializable[] boxed(double[] column) {
+        return Arrays.stream(column).boxed().toArray(Serializable[]::new);
+    }
+
+    @Test
+    void testFitMatchesColumnWiseFit() {
+        Random random = new Random(17);
+        double[][] columns = columns(4, 1500, random);
+        Double[] labels = new Double[1500];
+        for (int r = 0; r < labels.length; r++) {
+            labels[r] = (columns[0][r] + columns[1][r] > 100 ? 1D : 0D) + (random.nextInt(10) == 0 ? 2 : 0);
+        }
+
+        List<AbstractDiscretizer> expected = Arrays.asList(new MDLPDiscretizer(), new FUSINTERDiscretizer(),
+                new AmevaDiscretizer(), new PercentileMedianDiscretizer(5));
+        expected.get(0).fit(boxed(columns[0]), labels);
+        expected.get(1).fit(boxed(columns[1]), labels);
+        expected.get(2).fit(boxed(columns[2]), labels);
+        expected.get(3).fit(boxed(columns[3]));
+
+        TableDiscretizer tableDiscretizer = new TableDiscretizer(Arrays.asList(new MDLPDiscretizer(),
+                new FUSINTERDiscretizer(), new AmevaDiscretizer(), new PercentileMedianDiscretizer(5)));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            tableDiscretizer.fit(columns, labels, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int c = 0; c < columns.length; c++) {
+            assertEquals(expected.get(c).getTransitions().toString(),
+                    tableDiscretizer.getDiscretizers().get(c).getTransitions().toString());
+        }
+
+        double[][] block = columns(4, 50, random);
+        double[][] discretizedColumns = tableDiscretizer.apply(block);
+        double[][] rows = new double[50][4];
+        for (int r = 0; r < rows.length; r++) {
+            for (int c = 0; c < block.length; c++) {
+                rows[r][c] = block[c][r];
+            }
+        }
+        double[][] discretizedRows = tableDiscretizer.applyToRows(rows);
+        for (int c = 0; c < block.length; c++) {
+            assertArrayEquals(expected.get(c).apply(block[c]), discretizedColumns[c]);
+            for (int r = 0; r < rows.length; r++) {
+                assertEquals(discretizedColumns[c][r], discretizedRows[r][c]);
+            }
+        }
+    }
+
+    @Test
+    void testFitErrors() {
+        TableDiscretizer tableDiscretizer = new TableDiscretizer(Arrays.asList(new MDLPDiscretizer(),
+                new PercentileMedianDiscretizer(5)));
+        double[][] columns = columns(2, 10, new Random(1));
+        assertThrows(IllegalArgumentException.class, () -> tableDiscretizer.fit(columns, null));
+        assertThrows(IllegalArgumentException.class, () -> tableDiscretizer.fit(new double[][]{columns[0]}, null));
+        assertThrows(IllegalArgumentException.class, () -> tableDiscretizer.apply(new double[][]{columns[0]}));
+    }
+
+    @Test
+    void testFailedFitCancelsRemainingColumns() throws InterruptedException {
+        CountDownLatch never = new CountDownLatch(1);
+        PercentileMedianDiscretizer blocking = new PercentileMedianDiscretizer(5) {
+            @Override
+            protected List<DiscretizationTransition> fitCreateTransitions(double[] values) {
+                try {
+                    never.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                return super.fitCreateTransitions(values);
+            }
+        };
+        // Fitting the supervised column without labels fails, the other one would block until cancelled
+        TableDiscretizer tableDiscretizer = new TableDiscretizer(Arrays.asList(new MDLPDiscretizer(), blocking));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> tableDiscretizer.fit(columns(2, 10, new Random(2)), null, executor));
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
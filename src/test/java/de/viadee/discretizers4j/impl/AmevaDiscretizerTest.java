@@ -1,13 +1,16 @@
 package de.viadee.discretizers4j.impl;
 
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.FitReport;
 import de.viadee.discretizers4j.NumericDiscretizationOrigin;
+import de.viadee.discretizers4j.SupervisedColumn;
 import org.junit.jupiter.api.Test;
 
 import java.io.Serializable;
-import java.lang.reflect.Field;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -153,7 +156,7 @@ class AmevaDiscretizerTest {
     }
 
     @Test
-    void testAmevaValueDetermination() throws Exception {
+    void testAmevaValueDetermination() {
         Number[][] values = new Number[][]{
                 {1.0, 0},
                 {2.0, 0},
@@ -186,44 +189,48 @@ class AmevaDiscretizerTest {
                 {29.0, 0},
                 {30.0, 0}
         };
-        AmevaDiscretizer amevaDiscretizer = new AmevaDiscretizer();
-        List<AbstractMap.SimpleImmutableEntry<Number, Double>> keyValuePairs = Arrays.stream(values).map(value -> new AbstractMap.SimpleImmutableEntry<>(value[0], value[1].doubleValue()))
-                .sorted(Comparator.comparing(entry -> entry.getKey().doubleValue()))
-                .collect(Collectors.toList());
-
-        Field keyValuePairsField = AmevaDiscretizer.class.getDeclaredField("keyValuePairs");
-        keyValuePairsField.setAccessible(true);
-        keyValuePairsField.set(amevaDiscretizer, keyValuePairs);
-
-        List<Double> actualCutPoints = new ArrayList<>();
-        actualCutPoints.add(7.5);
-        actualCutPoints.add(19.5);
-
-        Field actualCutPointsField = AmevaDiscretizer.class.getDeclaredField("actualCutPoints");
-        actualCutPointsField.setAccessible(true);
-        actualCutPointsField.set(amevaDiscretizer, actualCutPoints);
-
-        Double[] targetValues = new Double[2];
-        targetValues[0] = 0.0;
-        targetValues[1] = 1.0;
-
-        Field targetValuesField = AmevaDiscretizer.class.getDeclaredField("targetValues");
-        targetValuesField.setAccessible(true);
-        targetValuesField.set(amevaDiscretizer, targetValues);
+        double[] keys = Arrays.stream(values).mapToDouble(value -> value[0].doubleValue()).toArray();
+        int[] classIndices = Arrays.stream(values).mapToInt(value -> value[1].intValue()).toArray();
 
         long[] targetValueDistribution = new long[2];
         targetValueDistribution[0] = 17;
         targetValueDistribution[1] = 13;
 
-        Field targetValueDistributionField = AmevaDiscretizer.class.getDeclaredField("targetValueDistribution");
-        targetValueDistributionField.setAccessible(true);
-        targetValueDistributionField.set(amevaDiscretizer, targetValueDistribution);
-
+        AmevaDiscretizer.CutPointSearch cutPointSearch = new AmevaDiscretizer.CutPointSearch(
+                SupervisedColumn.of(keys, classIndices), targetValueDistribution);
+        cutPointSearch.addCutPoint(7.5);
+        cutPointSearch.addCutPoint(19.5);
 
-        double ameva = amevaDiscretizer.determineAmeva(24.5);
+        double ameva = cutPointSearch.determineAmeva(24.5);
 
         assertEquals(3.04, ameva, 0.01);
 
     }
 
+    @Test
+    void testFitReport() {
+        Random random = new Random(43);
+        double[] values = new double[5000];
+        int[] classIndices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian();
+            classIndices[i] = (values[i] < -0.5 ? 0 : values[i] < 1 ? 1 : 2) + (random.nextInt(20) == 0 ? 1 : 0);
+        }
+
+        AmevaDiscretizer amevaDiscretizer = new AmevaDiscretizer();
+        amevaDiscretizer.enableFitReport();
+        amevaDiscretizer.fit(values, classIndices);
+        FitReport report = amevaDiscretizer.getFitReport();
+
+        assertEquals(Arrays.asList("column", "candidateScoring", "compile"),
+                new ArrayList<>(report.getPhaseNanos().keySet()));
+        assertTrue(report.getCandidatesEvaluated() > 0, report.toString());
+        int cutPoints = amevaDiscretizer.getTransitions().size() - 1;
+        assertTrue(cutPoints > 0);
+        assertEquals(cutPoints, report.getIterations());
+        // The whole column plus two intervals per accepted cut point
+        assertEquals(1 + 2L * cutPoints, report.getIntervalsBuilt());
+        assertEquals(0, report.getRecursionDepth());
+        assertTrue(report.getPeakScratchBytes() > 0, report.toString());
+    }
 }
@@ -1,12 +1,15 @@
 package de.viadee.discretizers4j.impl;
 
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.FitReport;
 import de.viadee.discretizers4j.NumericDiscretizationOrigin;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -112,4 +115,16 @@ class EqualSizeDiscretizerTest {
         assertTrue(discOrigin5.isLast());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testFitReport() {
+        double[] values = new Random(59).doubles(10000).toArray();
+        EqualSizeDiscretizer equalSizeDiscretizer = new EqualSizeDiscretizer(100);
+        equalSizeDiscretizer.enableFitReport();
+        equalSizeDiscretizer.fit(values);
+        FitReport report = equalSizeDiscretizer.getFitReport();
+
+        // The delegated fit records into the same report
+        assertEquals(Arrays.asList("select", "compile"), new ArrayList<>(report.getPhaseNanos().keySet()));
+        assertTrue(report.getPeakScratchBytes() >= 8L * values.length, report.toString());
+    }
+}
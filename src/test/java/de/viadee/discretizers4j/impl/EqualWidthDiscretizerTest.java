@@ -0,0 +1,109 @@
+package de.viadee.discretizers4j.impl;
+
+import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.NumericDiscretizationOrigin;
+import de.viadee.discretizers4j.SortedColumn;
+import de.viadee.discretizers4j.StreamingFitter;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EqualWidthDiscretizerTest {
+
+    @Test
+    void testEqualWidthClasses() {
+        Number[] values = {
+                10, 0, 3, 3, 3, 3, 3, 3, 7
+        };
+
+        EqualWidthDiscretizer equalWidthDiscretizer = new EqualWidthDiscretizer(5);
+        equalWidthDiscretizer.fit(values);
+        List<DiscretizationTransition> transitions = new ArrayList<>(equalWidthDiscretizer.getTransitions());
+
+        assertEquals(5, transitions.size());
+        for (int i = 0; i < transitions.size(); i++) {
+            NumericDiscretizationOrigin origin = (NumericDiscretizationOrigin) transitions.get(i).getDiscretizationOrigin();
+            assertEquals(2D * i, origin.getMinValue().doubleValue(), 1E-12);
+            assertEquals(2D * (i + 1), origin.getMaxValue().doubleValue(), 1E-12);
+            assertEquals(i, transitions.get(i).getDiscretizedValue().doubleValue());
+        }
+
+        assertArrayEquals(new double[]{0, 0, 0, 1, 1, 4, 4, 4},
+                equalWidthDiscretizer.apply(new double[]{-100, 0, 1.9, 2, 3.9, 8, 10, 100}));
+    }
+
+    @Test
+    void testSingleValue() {
+        EqualWidthDiscretizer equalWidthDiscretizer = new EqualWidthDiscretizer(3);
+        equalWidthDiscretizer.fit(new double[]{4, 4, 4});
+
+        assertEquals(1, equalWidthDiscretizer.getTransitions().size());
+        assertArrayEquals(new double[]{0, 0, 0}, equalWidthDiscretizer.apply(new double[]{-1, 4, 5}));
+    }
+
+    @Test
+    void testArithmeticApplyMatchesOrigins() {
+        Random random = new Random(5);
+        for (int run = 0; run < 100; run++) {
+            double min = random.nextGaussian() * Math.pow(10, random.nextInt(10) - 5);
+            double max = min + random.nextDouble() * Math.pow(10, random.nextInt(10) - 5);
+            EqualWidthDiscretizer equalWidthDiscretizer = new EqualWidthDiscretizer(1 + random.nextInt(200));
+            equalWidthDiscretizer.fit(new double[]{max, min});
+            List<DiscretizationTransition> transitions = new ArrayList<>(equalWidthDiscretizer.getTransitions());
+
+            List<Double> data = new ArrayList<>();
+            for (DiscretizationTransition transition : transitions) {
+                double boundary = ((NumericDiscretizationOrigin) transition.getDiscretizationOrigin()).getMinValue().doubleValue();
+                data.add(boundary);
+                data.add(Math.nextDown(boundary));
+                data.add(Math.nextUp(boundary));
+            }
+            for (int i = 0; i < 1000; i++) {
+                data.add(min + (random.nextDouble() * 1.2 - 0.1) * (max - min));
+            }
+            data.add(Double.NEGATIVE_INFINITY);
+            data.add(Double.POSITIVE_INFINITY);
+
+            double[] discretized = equalWidthDiscretizer.apply(data.stream().mapToDouble(Double::doubleValue).toArray());
+            for (int i = 0; i < discretized.length; i++) {
+                Double value = data.get(i);
+                DiscretizationTransition expected = transitions.stream()
+                        .filter(t -> t.getDiscretizationOrigin().canDiscretize(value)).findFirst().get();
+                assertEquals(expected.getDiscretizedValue().doubleValue(), discretized[i], "value " + value);
+            }
+        }
+    }
+
+    @Test
+    void testSortedAndStreamingFitMatchFit() {
+        double[] values = new Random(1).doubles(500).toArray();
+        EqualWidthDiscretizer unsorted = new EqualWidthDiscretizer(7);
+        unsorted.fit(values);
+
+        EqualWidthDiscretizer sorted = new EqualWidthDiscretizer(7);
+        sorted.fit(SortedColumn.of(values));
+        assertEquals(unsorted.getTransitions().toString(), sorted.getTransitions().toString());
+
+        EqualWidthDiscretizer streamed = new EqualWidthDiscretizer(7);
+        StreamingFitter<EqualWidthDiscretizer> fitter = streamed.streamingFitter();
+        fitter.feed(values);
+        fitter.finish();
+        assertEquals(unsorted.getTransitions().toString(), streamed.getTransitions().toString());
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new EqualWidthDiscretizer(0));
+        assertThrows(IllegalArgumentException.class, () -> new EqualWidthDiscretizer(2).fit(new double[]{1, Double.NaN}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new EqualWidthDiscretizer(2).fit(new Serializable[]{1, Double.POSITIVE_INFINITY}));
+        EqualWidthDiscretizer equalWidthDiscretizer = new EqualWidthDiscretizer(2);
+        equalWidthDiscretizer.fit(new double[]{0, 1});
+        assertThrows(IllegalArgumentException.class, () -> equalWidthDiscretizer.apply(new double[]{Double.NaN}));
+    }
+}
@@ -6,11 +6,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.FitReport;
 import de.viadee.discretizers4j.NumericDiscretizationOrigin;
 
 class FUSINTERDiscretizerTest {
@@ -158,4 +161,63 @@ class FUSINTERDiscretizerTest {
 		assertEquals(1, list.size());
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Equal values are collapsed to their class counts, so the order they are
+	 * passed in must not change the result
+	 */
+	@Test
+	void testOrderOfEqualValuesDoesNotMatter() {
+		final Random random = new Random(17);
+		final double[] values = new double[3000];
+		final int[] classIndices = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(60);
+			classIndices[i] = (values[i] < 20 ? 0 : values[i] < 45 ? 1 : 2) + (random.nextInt(5) == 0 ? 1 : 0);
+		}
+		final double[] reversedValues = new double[values.length];
+		final int[] reversedClassIndices = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			reversedValues[i] = values[values.length - 1 - i];
+			reversedClassIndices[i] = classIndices[values.length - 1 - i];
+		}
+
+		final FUSINTERDiscretizer fusinterDiscretizer = new FUSINTERDiscretizer();
+		fusinterDiscretizer.fit(values, classIndices);
+		final FUSINTERDiscretizer reversed = new FUSINTERDiscretizer();
+		reversed.fit(reversedValues, reversedClassIndices);
+		assertTrue(fusinterDiscretizer.getTransitions().size() > 1);
+		assertEquals(fusinterDiscretizer.getTransitions().toString(), reversed.getTransitions().toString());
+
+		final MDLPDiscretizer mdlpDiscretizer = new MDLPDiscretizer();
+		mdlpDiscretizer.fit(values, classIndices);
+		final MDLPDiscretizer reversedMdlp = new MDLPDiscretizer();
+		reversedMdlp.fit(reversedValues, reversedClassIndices);
+		assertEquals(mdlpDiscretizer.getTransitions().toString(), reversedMdlp.getTransitions().toString());
+	}
+
+	@Test
+	void testFitReport() {
+		final Random random = new Random(47);
+		final double[] values = new double[5000];
+		final int[] classIndices = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(400) / 4D;
+			classIndices[i] = (values[i] < 30 ? 0 : values[i] < 70 ? 1 : 2) + (random.nextInt(20) == 0 ? 1 : 0);
+		}
+
+		final FUSINTERDiscretizer fusinterDiscretizer = new FUSINTERDiscretizer();
+		fusinterDiscretizer.enableFitReport();
+		fusinterDiscretizer.fit(values, classIndices);
+		final FitReport report = fusinterDiscretizer.getFitReport();
+
+		assertEquals(Arrays.asList("column", "equalClassSplit", "merge", "compile"),
+				new ArrayList<>(report.getPhaseNanos().keySet()));
+		assertTrue(report.getCandidatesEvaluated() > 0, report.toString());
+		assertTrue(report.getIterations() > 0, report.toString());
+		// The equal class intervals, i.e. the remaining ones plus one per merge, and one interval per merge
+		final int remaining = fusinterDiscretizer.getTransitions().size();
+		assertEquals(remaining + 2 * report.getIterations(), report.getIntervalsBuilt());
+		assertEquals(0, report.getRecursionDepth());
+		assertTrue(report.getPeakScratchBytes() > 0, report.toString());
+	}
+}
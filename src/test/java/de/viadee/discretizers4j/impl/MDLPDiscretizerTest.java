@@ -1,12 +1,25 @@
 package de.viadee.discretizers4j.impl;
 
+import de.viadee.discretizers4j.AbstractSupervisedDiscretizer;
+import de.viadee.discretizers4j.BinnedColumn;
+import de.viadee.discretizers4j.ColumnSample;
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.FitReport;
+import de.viadee.discretizers4j.Interval;
 import de.viadee.discretizers4j.NumericDiscretizationOrigin;
+import de.viadee.discretizers4j.SampleStability;
+import de.viadee.discretizers4j.SortedColumn;
+import de.viadee.discretizers4j.StreamingFitter;
 import org.junit.jupiter.api.Test;
 
 import java.io.Serializable;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -342,5 +355,438 @@ class MDLPDiscretizerTest {
 
     }
 
+    @Test
+    void testPrimitiveFitMatchesBoxedFit() {
+        Random random = new Random(7);
+        double[] values = new double[2000];
+        int[] classIndices = new int[values.length];
+        Serializable[] serializables = new Serializable[values.length];
+        Double[] labels = new Double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(200) / 4D;
+            classIndices[i] = (values[i] < 15 || values[i] > 40) ? random.nextInt(2) * 4 : random.nextInt(3) * 4;
+            serializables[i] = values[i];
+            labels[i] = (double) classIndices[i];
+        }
+
+        MDLPDiscretizer boxed = new MDLPDiscretizer();
+        boxed.fit(serializables, labels);
+        MDLPDiscretizer primitive = new MDLPDiscretizer();
+        primitive.fit(values, classIndices);
+
+        assertEquals(boxed.getTransitions().toString(), primitive.getTransitions().toString());
+    }
+
+    @Test
+    void testFitOnSharedSortedColumn() {
+        Random random = new Random(11);
+        double[] values = new double[2000];
+        int[] classIndices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(200) / 4D;
+            classIndices[i] = (values[i] < 15 || values[i] > 40) ? random.nextInt(2) : random.nextInt(3);
+        }
+        SortedColumn column = SortedColumn.of(values);
+        // Unsupervised fits need no original positions, so the column builds them only for the supervised ones
+        EqualWidthDiscretizer equalWidth = new EqualWidthDiscretizer(5);
+        equalWidth.fit(column);
+
+        MDLPDiscretizer unsorted = new MDLPDiscretizer();
+        unsorted.fit(values, classIndices);
+        MDLPDiscretizer shared = new MDLPDiscretizer();
+        shared.fit(column, classIndices);
+        assertEquals(unsorted.getTransitions().toString(), shared.getTransitions().toString());
+
+        FUSINTERDiscretizer fusinterUnsorted = new FUSINTERDiscretizer();
+        fusinterUnsorted.fit(values, classIndices);
+        FUSINTERDiscretizer fusinterShared = new FUSINTERDiscretizer();
+        fusinterShared.fit(column, classIndices);
+        assertEquals(fusinterUnsorted.getTransitions().toString(), fusinterShared.getTransitions().toString());
+
+        assertThrows(IllegalArgumentException.class, () -> new MDLPDiscretizer().fit(column, new int[1]));
+
+        // Equal values keep the order they were passed in
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[column.getOriginalIndex(i)], column.getValue(i));
+            if (i > 0 && column.getValue(i) == column.getValue(i - 1)) {
+                assertTrue(column.getOriginalIndex(i) > column.getOriginalIndex(i - 1));
+            }
+        }
+    }
+
+    @Test
+    void testFitCountsMatchesExpandedFit() {
+        Random random = new Random(19);
+        int records = 400;
+        double[] values = new double[records];
+        int[] classIndices = new int[records];
+        int[] counts = new int[records];
+        List<Double> expandedValues = new ArrayList<>();
+        List<Integer> expandedClasses = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            values[i] = random.nextInt(120) / 2D;
+            classIndices[i] = (values[i] < 20 ? 2 : values[i] < 45 ? 5 : 7) + (random.nextInt(4) == 0 ? 2 : 0);
+            counts[i] = random.nextInt(30);
+            for (int c = 0; c < counts[i]; c++) {
+                expandedValues.add(values[i]);
+                expandedClasses.add(classIndices[i]);
+            }
+        }
+        double[] expanded = expandedValues.stream().mapToDouble(Double::doubleValue).toArray();
+        int[] expandedClassIndices = expandedClasses.stream().mapToInt(Integer::intValue).toArray();
+
+        List<Supplier<AbstractSupervisedDiscretizer>> discretizers = Arrays.asList(
+                MDLPDiscretizer::new, AmevaDiscretizer::new, FUSINTERDiscretizer::new);
+        for (Supplier<AbstractSupervisedDiscretizer> discretizer : discretizers) {
+            AbstractSupervisedDiscretizer counted = discretizer.get();
+            counted.fitCounts(values, classIndices, counts);
+            AbstractSupervisedDiscretizer plain = discretizer.get();
+            plain.fit(expanded, expandedClassIndices);
+            assertTrue(plain.getTransitions().size() > 1);
+            assertEquals(plain.getTransitions().toString(), counted.getTransitions().toString());
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new MDLPDiscretizer().fitCounts(values, new int[1], counts));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MDLPDiscretizer().fitCounts(values, classIndices, new int[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MDLPDiscretizer().fitCounts(values, classIndices, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MDLPDiscretizer().fitCounts(null, classIndices, counts));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MDLPDiscretizer().fitCounts(new double[0], new int[0], new int[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MDLPDiscretizer().fit(SortedColumn.ofCounts(values, counts), classIndices));
+    }
+
+    @Test
+    void testBinnedFitOnDistinctValuesMatchesExactFit() {
+        Random random = new Random(23);
+        double[] values = new double[3000];
+        int[] classIndices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(150) / 4D;
+            classIndices[i] = (values[i] < 10 ? 0 : values[i] < 25 ? 1 : 2) + (random.nextInt(6) == 0 ? 1 : 0);
+        }
+        // Fewer distinct values than bins, so each value gets its own bin
+        BinnedColumn column = BinnedColumn.of(values, classIndices, 1000);
+        assertEquals(150, column.getBinCount());
+
+        List<Supplier<AbstractSupervisedDiscretizer>> discretizers = Arrays.asList(
+                MDLPDiscretizer::new, AmevaDiscretizer::new, FUSINTERDiscretizer::new);
+        for (Supplier<AbstractSupervisedDiscretizer> discretizer : discretizers) {
+            AbstractSupervisedDiscretizer binned = discretizer.get();
+            binned.fit(column);
+            AbstractSupervisedDiscretizer exact = discretizer.get();
+            exact.fit(values, classIndices);
+            assertTrue(exact.getTransitions().size() > 1);
+            assertEquals(exact.getTransitions().size(), binned.getTransitions().size());
+            assertArrayEquals(exact.apply(values), binned.apply(values));
+        }
+    }
+
+    @Test
+    void testBinnedFitReportsItsResolution() {
+        Random random = new Random(29);
+        double[] values = new double[200000];
+        int[] classIndices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 10;
+            classIndices[i] = (values[i] < -5 ? 0 : values[i] < 8 ? 1 : 2) + (random.nextInt(10) == 0 ? 1 : 0);
+        }
+        BinnedColumn column = BinnedColumn.of(values, classIndices, 256);
+        assertTrue(column.getBinCount() <= 256);
+        assertTrue(column.getRankErrorBound() >= values.length / 256);
+        assertTrue(column.getNormalizedRankErrorBound() < 2D / 256);
+
+        MDLPDiscretizer binned = new MDLPDiscretizer();
+        binned.fit(column);
+        MDLPDiscretizer exact = new MDLPDiscretizer();
+        exact.fit(values, classIndices);
+        long[] binnedRanks = cutPointRanks(binned, values);
+        for (long exactRank : cutPointRanks(exact, values)) {
+            long distance = Arrays.stream(binnedRanks).map(rank -> Math.abs(rank - exactRank)).min().getAsLong();
+            assertTrue(distance <= column.getRankErrorBound(), "distance " + distance);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            MDLPDiscretizer parallel = new MDLPDiscretizer();
+            parallel.fit(BinnedColumn.of(values, classIndices, 256, pool));
+            assertEquals(binned.getTransitions().toString(), parallel.getTransitions().toString());
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> BinnedColumn.of(values, classIndices, 0));
+        assertThrows(IllegalArgumentException.class, () -> BinnedColumn.of(values, new int[1], 16));
+    }
+
+    @Test
+    void testStratifiedSampleFitAndStability() {
+        Random random = new Random(37);
+        double[] values = new double[100000];
+        int[] classIndices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 10;
+            classIndices[i] = (values[i] < -5 ? 0 : values[i] < 8 ? 1 : 2) + (random.nextInt(10) == 0 ? 1 : 0);
+            if (i % 10000 == 0) {
+                classIndices[i] = 9;
+            }
+        }
+        ColumnSample sample = ColumnSample.stratified(values, classIndices, 2000, 3);
+        assertTrue(sample.isLabeled());
+        assertArrayEquals(sample.getValues(), ColumnSample.stratified(values, classIndices, 2000, 3).getValues());
+        for (int classIndex : new int[]{0, 1, 2, 3}) {
+            long inColumn = Arrays.stream(classIndices).filter(c -> c == classIndex).count();
+            long inSample = Arrays.stream(sample.getClassIndices()).filter(c -> c == classIndex).count();
+            assertEquals(inColumn * 2000D / values.length, inSample, 1D);
+        }
+        // The rare class is kept
+        assertEquals(1, Arrays.stream(sample.getClassIndices()).filter(c -> c == 9).count());
+
+        MDLPDiscretizer sampled = new MDLPDiscretizer();
+        sampled.fit(sample);
+        MDLPDiscretizer plain = new MDLPDiscretizer();
+        plain.fit(sample.getValues(), sample.getClassIndices());
+        assertEquals(plain.getTransitions().toString(), sampled.getTransitions().toString());
+
+        SampleStability small = SampleStability.of(MDLPDiscretizer::new, values, classIndices, 300, 1, 4);
+        SampleStability large = SampleStability.of(MDLPDiscretizer::new, values, classIndices, 20000, 1, 4);
+        assertEquals(4, large.getResampleCount());
+        assertTrue(large.getMaxQuantileDisplacement() < 0.02, large.toString());
+        assertTrue(large.getMeanQuantileDisplacement() < small.getMeanQuantileDisplacement(),
+                small + " vs " + large);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new MDLPDiscretizer().fit(ColumnSample.reservoir(values, 100, 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> SampleStability.of(MDLPDiscretizer::new, values, classIndices, 100, 1, 1));
+    }
+
+    @Test
+    void testStreamingFitMatchesBatchFitOnHighCardinalityColumn() {
+        Random random = new Random(19);
+        double[] values = new double[40000];
+        int[] classIndices = new int[values.length];
+        Double[] labels = new Double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            // Mostly distinct values, some repeated, and more classes than the summary starts with
+            values[i] = random.nextInt(4) == 0 ? random.nextInt(50) : random.nextGaussian() * 1000;
+            classIndices[i] = (values[i] < -300 ? 0 : values[i] < 400 ? 1 : 2) + 3 * random.nextInt(3);
+            labels[i] = (double) classIndices[i];
+        }
+
+        List<Supplier<AbstractSupervisedDiscretizer>> suppliers = Arrays.asList(MDLPDiscretizer::new,
+                AmevaDiscretizer::new, FUSINTERDiscretizer::new);
+        for (Supplier<AbstractSupervisedDiscretizer> discretizers : suppliers) {
+            AbstractSupervisedDiscretizer batch = discretizers.get();
+            batch.fit(values, classIndices);
+
+            StreamingFitter<AbstractSupervisedDiscretizer> fitter = discretizers.get().streamingFitter();
+            for (int from = 0; from < values.length; from += 3000) {
+                int to = Math.min(values.length, from + 3000);
+                fitter.feed(Arrays.copyOfRange(values, from, to), Arrays.copyOfRange(labels, from, to));
+            }
+            assertEquals(batch.getTransitions().toString(), fitter.finish().getTransitions().toString());
+        }
+    }
+
+    @Test
+    void testBoundedStreamingFitKeepsMemoryCapped() {
+        Random random = new Random(23);
+        double[] values = new double[200000];
+        Double[] labels = new Double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 1000;
+            labels[i] = values[i] < -300 ? 0D : values[i] < 400 ? 1D : 2D;
+        }
+        MDLPDiscretizer exact = new MDLPDiscretizer();
+        exact.enableFitReport();
+        StreamingFitter<AbstractSupervisedDiscretizer> exactFitter = exact.streamingFitter();
+        MDLPDiscretizer bounded = new MDLPDiscretizer();
+        bounded.enableFitReport();
+        StreamingFitter<AbstractSupervisedDiscretizer> boundedFitter = bounded.streamingFitter(1024);
+        for (int from = 0; from < values.length; from += 5000) {
+            double[] chunk = Arrays.copyOfRange(values, from, from + 5000);
+            Double[] chunkLabels = Arrays.copyOfRange(labels, from, from + 5000);
+            exactFitter.feed(chunk, chunkLabels);
+            boundedFitter.feed(chunk, chunkLabels);
+        }
+        exactFitter.finish();
+        boundedFitter.finish();
+
+        assertTrue(exact.getFitReport().getPeakScratchBytes() > 16L * values.length, exact.getFitReport().toString());
+        assertTrue(bounded.getFitReport().getPeakScratchBytes() < 128L * 1024, bounded.getFitReport().toString());
+
+        // Cut points lie on bin boundaries next to the exact ones
+        long[] exactRanks = cutPointRanks(exact, values);
+        assertEquals(2, exactRanks.length);
+        for (long rank : cutPointRanks(bounded, values)) {
+            assertTrue(Arrays.stream(exactRanks).anyMatch(exactRank -> Math.abs(rank - exactRank) < values.length / 100),
+                    rank + " vs " + Arrays.toString(exactRanks));
+        }
+    }
+
+    @Test
+    void testBoundedStreamingFitIsExactBelowCapacity() {
+        Random random = new Random(29);
+        double[] values = new double[20000];
+        int[] classIndices = new int[values.length];
+        Double[] labels = new Double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(500);
+            classIndices[i] = (values[i] < 150 ? 0 : values[i] < 350 ? 1 : 2) + (random.nextInt(10) == 0 ? 1 : 0);
+            labels[i] = (double) classIndices[i];
+        }
+        MDLPDiscretizer batch = new MDLPDiscretizer();
+        batch.fit(values, classIndices);
 
-}
\ No newline at end of file
+        StreamingFitter<AbstractSupervisedDiscretizer> fitter = new MDLPDiscretizer().streamingFitter(500);
+        for (int from = 0; from < values.length; from += 3000) {
+            int to = Math.min(values.length, from + 3000);
+            fitter.feed(Arrays.copyOfRange(values, from, to), Arrays.copyOfRange(labels, from, to));
+        }
+        assertEquals(batch.getTransitions().toString(), fitter.finish().getTransitions().toString());
+        assertThrows(IllegalArgumentException.class, () -> new MDLPDiscretizer().streamingFitter(1));
+    }
+
+    /**
+     * Discretizers written against the deprecated entry list API still fit
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    void testDeprecatedSubclassApi() {
+        List<List<Interval>> equalClassSplits = new ArrayList<>();
+        AbstractSupervisedDiscretizer legacy = new AbstractSupervisedDiscretizer(true) {
+            @Override
+            protected List<DiscretizationTransition> fitCreateTransitions(
+                    List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs) {
+                List<Interval> intervals = equalClassSplit(keyValuePairs);
+                equalClassSplits.add(intervals);
+                List<Double> cutPoints = new ArrayList<>();
+                for (Interval interval : intervals.subList(0, intervals.size() - 1)) {
+                    cutPoints.add((keyValuePairs.get(interval.getEnd()).getKey()
+                            + keyValuePairs.get(interval.getEnd() + 1).getKey()) / 2);
+                }
+                return getDiscretizationTransitionsFromCutPoints(cutPoints, keyValuePairs.get(0).getKey(),
+                        keyValuePairs.get(keyValuePairs.size() - 1).getKey());
+            }
+        };
+        legacy.fit(new double[]{4, 1, 2, 2, 5, 6, 1}, new int[]{1, 0, 0, 1, 1, 1, 0});
+
+        // Values 1, 1 of class 0, the mixed value 2 on its own and 4, 5, 6 of class 1, by position
+        List<Interval> intervals = equalClassSplits.get(0);
+        assertEquals(3, intervals.size());
+        assertEquals(Arrays.asList(0, 2, 4), Arrays.asList(intervals.get(0).getBegin(), intervals.get(1).getBegin(),
+                intervals.get(2).getBegin()));
+        assertEquals(Arrays.asList(1, 3, 6), Arrays.asList(intervals.get(0).getEnd(), intervals.get(1).getEnd(),
+                intervals.get(2).getEnd()));
+        assertArrayEquals(new int[]{1, 1}, intervals.get(1).getClassDist());
+        assertEquals(3, legacy.getTransitions().size());
+        assertTrue(legacy.getTransitions().stream().anyMatch(transition -> ((NumericDiscretizationOrigin)
+                transition.getDiscretizationOrigin()).getMinValue().doubleValue() == 1.5));
+
+        List<AbstractMap.SimpleImmutableEntry<Double, Double>> keyValuePairs = Arrays.asList(
+                new AbstractMap.SimpleImmutableEntry<>(1D, 7D), new AbstractMap.SimpleImmutableEntry<>(2D, 3D),
+                new AbstractMap.SimpleImmutableEntry<>(3D, 7D));
+        assertArrayEquals(new int[]{1, 1}, new Interval(0, 1, keyValuePairs).getClassDist());
+        assertEquals(2, new Interval(0, 1, keyValuePairs).getSize());
+    }
+
+    @Test
+    void testFitReport() {
+        Random random = new Random(41);
+        double[] values = new double[5000];
+        int[] classIndices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian();
+            classIndices[i] = (values[i] < -0.5 ? 0 : values[i] < 1 ? 1 : 2) + (random.nextInt(20) == 0 ? 1 : 0);
+        }
+
+        MDLPDiscretizer reported = new MDLPDiscretizer();
+        assertThrows(IllegalArgumentException.class, reported::getFitReport);
+        reported.enableFitReport();
+        reported.fit(values, classIndices);
+        MDLPDiscretizer plain = new MDLPDiscretizer();
+        plain.fit(values, classIndices);
+        assertEquals(plain.getTransitions().toString(), reported.getTransitions().toString());
+        assertThrows(IllegalArgumentException.class, plain::getFitReport);
+        assertThrows(IllegalArgumentException.class, reported::enableFitReport);
+
+        FitReport report = reported.getFitReport();
+        assertEquals(Arrays.asList("column", "equalClassSplit", "splitSearch", "compile"),
+                new ArrayList<>(report.getPhaseNanos().keySet()));
+        assertTrue(report.getTotalNanos() >= report.getPhaseNanos().values().stream().mapToLong(n -> n).max()
+                .getAsLong(), report.toString());
+        assertTrue(report.getCandidatesEvaluated() > 0, report.toString());
+        // Each accepted split builds two intervals and descends one level
+        assertEquals(plain.getTransitions().size() - 1, report.getIterations());
+        assertTrue(report.getRecursionDepth() >= 2, report.toString());
+        assertTrue(report.getRecursionDepth() <= report.getIterations() + 1, report.toString());
+        assertTrue(report.getPeakScratchBytes() > 8L * values.length, report.toString());
+    }
+
+    private static long[] cutPointRanks(MDLPDiscretizer discretizer, double[] values) {
+        return discretizer.getTransitions().stream().skip(1)
+                .mapToDouble(t -> ((NumericDiscretizationOrigin) t.getDiscretizationOrigin()).getMinValue().doubleValue())
+                .mapToLong(cutPoint -> Arrays.stream(values).filter(value -> value < cutPoint).count())
+                .toArray();
+    }
+
+    @Test
+    void testParallelFitMatchesSequentialFit() {
+        Random random = new Random(11);
+        double[] values = new double[5000];
+        int[] classIndices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 10;
+            classIndices[i] = (int) Math.floor(Math.abs(values[i]) / 4) % 3;
+            if (random.nextInt(10) == 0) {
+                classIndices[i] = random.nextInt(3);
+            }
+        }
+
+        MDLPDiscretizer sequential = new MDLPDiscretizer(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        sequential.fit(values, classIndices);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MDLPDiscretizer parallel = new MDLPDiscretizer(pool, 1);
+            parallel.fit(values, classIndices);
+            assertTrue(sequential.getTransitions().size() > 2);
+            assertEquals(sequential.getTransitions().toString(), parallel.getTransitions().toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testInvalidParallelismSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new MDLPDiscretizer(null, 100));
+        assertThrows(IllegalArgumentException.class, () -> new MDLPDiscretizer(ForkJoinPool.commonPool(), 0));
+    }
+
+    @Test
+    void testStreamingFitMatchesFit() {
+        Random random = new Random(13);
+        Serializable[] values = new Serializable[3000];
+        Double[] labels = new Double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            double value = random.nextDouble() * 100;
+            values[i] = value;
+            labels[i] = (value < 30 ? 0D : value < 70 ? 1D : 2D) + (random.nextInt(8) == 0 ? 1 : 0);
+        }
+        MDLPDiscretizer mdlpDiscretizer = new MDLPDiscretizer();
+        mdlpDiscretizer.fit(values, labels);
+
+        StreamingFitter<AbstractSupervisedDiscretizer> fitter = new MDLPDiscretizer().streamingFitter();
+        for (int from = 0; from < values.length; from += 700) {
+            int to = Math.min(values.length, from + 700);
+            fitter.feed(Arrays.copyOfRange(values, from, to), Arrays.copyOfRange(labels, from, to));
+        }
+        assertThrows(IllegalArgumentException.class, () -> fitter.feed(new double[]{1D}));
+
+        assertEquals(mdlpDiscretizer.getTransitions().toString(), fitter.finish().getTransitions().toString());
+    }
+}
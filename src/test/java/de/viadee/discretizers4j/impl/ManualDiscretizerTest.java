@@ -1,26 +1,22 @@
 package de.viadee.discretizers4j.impl;
 
-import de.viadee.discretizers4j.AbstractDiscretizer;
+import de.viadee.discretizers4j.DiscretizationModel;
 import de.viadee.discretizers4j.NumericDiscretizationOrigin;
+import de.viadee.discretizers4j.SortedColumn;
+import de.viadee.discretizers4j.StreamingFitter;
 import org.junit.jupiter.api.Test;
 
 import java.io.Serializable;
-import java.lang.reflect.Field;
-import java.util.Collection;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ManualDiscretizerTest {
 
     private static int getTransitionSize(ManualDiscretizer manualDiscretizer) {
-        Field discretizationTransitions;
-        try {
-            discretizationTransitions = AbstractDiscretizer.class.getDeclaredField("discretizationTransitions");
-            discretizationTransitions.setAccessible(true);
-            return ((Collection) discretizationTransitions.get(manualDiscretizer)).size();
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            throw new RuntimeException(e);
-        }
+        return manualDiscretizer.getTransitions().size();
     }
 
     @Test
@@ -257,4 +253,79 @@ class ManualDiscretizerTest {
                 .getTransition(95D).getDiscretizationOrigin()).getMaxValue());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testApplyOnDegenerateBoundaryClasses() {
+        ManualDiscretizer manualDiscretizer = new ManualDiscretizer(20, 40, 60, 80);
+        manualDiscretizer.fit(new Serializable[]{50});
+
+        assertEquals(20D, manualDiscretizer.apply(-1000).doubleValue());
+        assertEquals(30D, manualDiscretizer.apply(20).doubleValue());
+        assertEquals(30D, manualDiscretizer.apply(39.9).doubleValue());
+        assertEquals(50D, manualDiscretizer.apply(40).doubleValue());
+        assertEquals(70D, manualDiscretizer.apply(80).doubleValue());
+        assertEquals(70D, manualDiscretizer.apply(1000).doubleValue());
+    }
+
+    @Test
+    void testStreamingFitMatchesFit() {
+        ManualDiscretizer manualDiscretizer = new ManualDiscretizer(20, 40, 60, 80);
+        manualDiscretizer.fit(new Serializable[]{15, 50, 95, 3});
+
+        StreamingFitter<ManualDiscretizer> fitter = new ManualDiscretizer(20, 40, 60, 80).streamingFitter();
+        fitter.feed(new Serializable[]{15, 50});
+        fitter.feed(new double[]{95, 3});
+        ManualDiscretizer streamed = fitter.finish();
+
+        assertEquals(manualDiscretizer.getTransitions().toString(), streamed.getTransitions().toString());
+        assertThrows(IllegalArgumentException.class, () -> fitter.feed(new double[]{1}));
+        assertThrows(IllegalArgumentException.class, fitter::finish);
+        assertThrows(IllegalArgumentException.class, () -> new ManualDiscretizer(20).streamingFitter().finish());
+    }
+
+    @Test
+    void testFitWithoutSortingMatchesSortedFit() {
+        double[] values = {15, 50, -0.0, 95, 3, 0.0, 95};
+        ManualDiscretizer manualDiscretizer = new ManualDiscretizer(20, 40, 60, 80);
+        manualDiscretizer.fit(values);
+        ManualDiscretizer sorted = new ManualDiscretizer(20, 40, 60, 80);
+        sorted.fit(SortedColumn.of(values));
+        assertEquals(sorted.getTransitions().toString(), manualDiscretizer.getTransitions().toString());
+    }
+
+    @Test
+    void testModelIsImmutableAndSharedAcrossThreads() throws InterruptedException {
+        ManualDiscretizer manualDiscretizer = new ManualDiscretizer(20, 40, 60, 80);
+        manualDiscretizer.fit(new Serializable[]{10, 90});
+        DiscretizationModel model = manualDiscretizer.getModel();
+
+        assertThrows(UnsupportedOperationException.class, () -> model.getTransitions().clear());
+        assertTrue(((NumericDiscretizationOrigin) model.getTransitions().get(0).getDiscretizationOrigin()).isFirst());
+        assertTrue(((NumericDiscretizationOrigin) model.getTransitions().get(model.getTransitions().size() - 1)
+                .getDiscretizationOrigin()).isLast());
+        assertThrows(IllegalArgumentException.class, () -> manualDiscretizer.fit(new Serializable[]{10, 90}));
+
+        double[] data = new double[10_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i % 100;
+        }
+        double[] expected = manualDiscretizer.apply(data);
+        double[][] results = new double[4][];
+        Thread[] threads = new Thread[results.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int thread = t;
+            threads[t] = new Thread(() -> {
+                double[] result = new double[data.length];
+                model.apply(data, result);
+                results[thread] = result;
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (double[] result : results) {
+            assertArrayEquals(expected, result);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ManualDiscretizer(20).getModel());
+    }
+}
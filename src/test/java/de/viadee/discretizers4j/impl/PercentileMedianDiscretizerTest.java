@@ -1,12 +1,22 @@
 package de.viadee.discretizers4j.impl;
 
+import de.viadee.discretizers4j.AbstractDiscretizer;
+import de.viadee.discretizers4j.ColumnSample;
 import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.FitReport;
+import de.viadee.discretizers4j.NumericDiscretizationOrigin;
+import de.viadee.discretizers4j.QuantileSketch;
+import de.viadee.discretizers4j.SampleStability;
+import de.viadee.discretizers4j.SortedColumn;
 import org.junit.jupiter.api.Test;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,4 +65,299 @@ class PercentileMedianDiscretizerTest {
         assertEquals(1, list.size());
 
     }
+
+    @Test
+    void testApplyMatchesTransitionOrigins() {
+        Random random = new Random(42);
+        Double[] values = random.doubles(1000, -50, 50).boxed().toArray(Double[]::new);
+        PercentileMedianDiscretizer percentileMedianDiscretizer = new PercentileMedianDiscretizer(17);
+        percentileMedianDiscretizer.fit(values);
+
+        List<DiscretizationTransition> transitions = new ArrayList<>(percentileMedianDiscretizer.getTransitions());
+        Double[] probes = random.doubles(1000, -100, 100).boxed().toArray(Double[]::new);
+        for (Double probe : probes) {
+            Double expected = transitions.stream().filter(t -> t.getDiscretizationOrigin().canDiscretize(probe))
+                    .findFirst().map(DiscretizationTransition::getDiscretizedValue).orElse(null);
+            assertEquals(expected, percentileMedianDiscretizer.apply(probe));
+        }
+        for (DiscretizationTransition transition : transitions) {
+            Number boundary = ((NumericDiscretizationOrigin) transition.getDiscretizationOrigin()).getMinValue();
+            assertEquals(transition.getDiscretizedValue(), percentileMedianDiscretizer.apply(boundary));
+        }
+    }
+
+    @Test
+    void testPrimitiveApplyMatchesBoxedApply() {
+        PercentileMedianDiscretizer percentileMedianDiscretizer = new PercentileMedianDiscretizer(3);
+        percentileMedianDiscretizer.fit(IntStream.range(1, 21).boxed().toArray(Integer[]::new));
+
+        double[] data = {-5D, 4D, 2D, 10D, 20D, 100D};
+        Double[] expected = percentileMedianDiscretizer.apply(new Double[]{-5D, 4D, 2D, 10D, 20D, 100D});
+        double[] discretization = percentileMedianDiscretizer.apply(data);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(expected[i].doubleValue(), discretization[i]);
+        }
+
+        List<DiscretizationTransition> transitions = new ArrayList<>(percentileMedianDiscretizer.getTransitions());
+        int[] indices = percentileMedianDiscretizer.applyToIndex(data);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(expected[i], transitions.get(indices[i]).getDiscretizedValue());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> percentileMedianDiscretizer.apply(data, new double[2]));
+    }
+
+    @Test
+    void testSketchFitMatchesExactFitOnSmallColumns() {
+        Random random = new Random(3);
+        double[] values = random.doubles(1000, -50, 50).toArray();
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.update(values);
+        assertEquals(0, sketch.getRankErrorBound());
+
+        PercentileMedianDiscretizer exact = new PercentileMedianDiscretizer(7);
+        exact.fit(Arrays.stream(values).boxed().toArray(Double[]::new));
+        PercentileMedianDiscretizer sketched = new PercentileMedianDiscretizer(7);
+        sketched.fit(sketch);
+
+        assertEquals(exact.getTransitions().toString(), sketched.getTransitions().toString());
+    }
+
+    @Test
+    void testSketchIsExactBelowCapacity() {
+        double[] values = new Random(5).doubles(16).toArray();
+        QuantileSketch sketch = new QuantileSketch(16);
+        sketch.update(Arrays.copyOf(values, 15));
+        assertEquals(0, sketch.getRankErrorBound());
+        double[] sorted = Arrays.copyOf(values, 15);
+        Arrays.sort(sorted);
+        long[] ranks = LongStream.range(0, 15).toArray();
+        assertArrayEquals(sorted, sketch.getValuesAtRanks(ranks));
+
+        // The capacity-th value fills the first level, which is compacted
+        sketch.update(values[15]);
+        assertEquals(1, sketch.getRankErrorBound());
+        assertEquals(16, sketch.getCount());
+    }
+
+    @Test
+    void testMergedSketchFitStaysWithinRankErrorBound() {
+        final int shards = 4;
+        final int shardSize = 250000;
+        Random random = new Random(5);
+        double[] values = new double[shards * shardSize];
+        QuantileSketch sketch = new QuantileSketch(256);
+        for (int shard = 0; shard < shards; shard++) {
+            QuantileSketch shardSketch = new QuantileSketch(256);
+            for (int i = 0; i < shardSize; i++) {
+                values[shard * shardSize + i] = random.nextGaussian();
+                shardSketch.update(values[shard * shardSize + i]);
+            }
+            sketch.merge(shardSketch);
+        }
+        assertEquals(values.length, sketch.getCount());
+        assertTrue(sketch.getRankErrorBound() > 0);
+        assertTrue(sketch.getNormalizedRankErrorBound() < 0.05);
+
+        PercentileMedianDiscretizer percentileMedianDiscretizer = new PercentileMedianDiscretizer(10);
+        percentileMedianDiscretizer.fit(sketch);
+        List<DiscretizationTransition> transitions = new ArrayList<>(percentileMedianDiscretizer.getTransitions());
+        assertEquals(10, transitions.size());
+
+        Arrays.sort(values);
+        assertEquals(values[0], ((NumericDiscretizationOrigin) transitions.get(0).getDiscretizationOrigin())
+                .getMinValue().doubleValue());
+        for (int i = 1; i < transitions.size(); i++) {
+            double cutPoint = ((NumericDiscretizationOrigin) transitions.get(i).getDiscretizationOrigin())
+                    .getMinValue().doubleValue();
+            long rank = Arrays.stream(values).filter(value -> value < cutPoint).count();
+            assertEquals(i * values.length / 10D, rank, sketch.getRankErrorBound() + 1D);
+        }
+    }
+
+    @Test
+    void testFitOnSharedSortedColumn() {
+        double[] values = {5, 1, 3, 3, 9, 1, 7, 3};
+        Serializable[] serializables = Arrays.stream(values).boxed().toArray(Serializable[]::new);
+        SortedColumn column = SortedColumn.of(values);
+
+        assertEquals(5, column.getRunCount());
+        assertEquals(2, column.getRunStart(1));
+        assertEquals(4, column.getRunEnd(1));
+        assertEquals(3D, column.getRunValue(1));
+        assertArrayEquals(new int[]{1, 5, 2, 3, 7, 0, 6, 4},
+                IntStream.range(0, values.length).map(column::getOriginalIndex).toArray());
+
+        PercentileMedianDiscretizer shared = new PercentileMedianDiscretizer(3);
+        shared.fit(column);
+        PercentileMedianDiscretizer boxed = new PercentileMedianDiscretizer(3);
+        boxed.fit(serializables);
+        assertEquals(boxed.getTransitions().toString(), shared.getTransitions().toString());
+
+        EqualSizeDiscretizer equalSize = new EqualSizeDiscretizer(2);
+        equalSize.fit(column);
+        EqualSizeDiscretizer equalSizeBoxed = new EqualSizeDiscretizer(2);
+        equalSizeBoxed.fit(serializables);
+        assertEquals(equalSizeBoxed.getTransitions().toString(), equalSize.getTransitions().toString());
+
+        assertThrows(IllegalArgumentException.class, () -> new MDLPDiscretizer().fit(column));
+    }
+
+    @Test
+    void testFitCountsMatchesExpandedFit() {
+        double[] values = {7, 1, 3, 9, 1, 5};
+        int[] counts = {3, 2, 4, 0, 1, 2};
+        double[] expanded = {7, 7, 7, 1, 1, 3, 3, 3, 3, 1, 5, 5};
+
+        SortedColumn column = SortedColumn.ofCounts(values, counts);
+        assertEquals(expanded.length, column.size());
+        assertEquals(4, column.getRunCount());
+        assertEquals(2, column.getRunEnd(0));
+        assertEquals(3D, column.getValue(4));
+        assertEquals(7D, column.getMaxValue());
+        assertTrue(column.isCounted());
+        assertThrows(IllegalArgumentException.class, () -> column.getOriginalIndex(0));
+
+        for (int classCount = 1; classCount <= 5; classCount++) {
+            PercentileMedianDiscretizer counted = new PercentileMedianDiscretizer(classCount);
+            counted.fitCounts(values, counts);
+            PercentileMedianDiscretizer plain = new PercentileMedianDiscretizer(classCount);
+            plain.fit(expanded);
+            assertEquals(plain.getTransitions().toString(), counted.getTransitions().toString());
+        }
+
+        EqualSizeDiscretizer equalSize = new EqualSizeDiscretizer();
+        equalSize.fitCounts(values, counts);
+        EqualSizeDiscretizer equalSizePlain = new EqualSizeDiscretizer();
+        equalSizePlain.fit(expanded);
+        assertEquals(equalSizePlain.getTransitions().toString(), equalSize.getTransitions().toString());
+
+        ManualDiscretizer manual = new ManualDiscretizer(2, 4);
+        manual.fitCounts(values, counts);
+        ManualDiscretizer manualPlain = new ManualDiscretizer(2, 4);
+        manualPlain.fit(expanded);
+        assertEquals(manualPlain.getTransitions().toString(), manual.getTransitions().toString());
+
+        UniqueValueDiscretizer uniqueValue = new UniqueValueDiscretizer();
+        uniqueValue.fitCounts(values, counts);
+        UniqueValueDiscretizer uniqueValuePlain = new UniqueValueDiscretizer();
+        uniqueValuePlain.fit(expanded);
+        assertArrayEquals(uniqueValuePlain.apply(expanded), uniqueValue.apply(expanded));
+        assertEquals(4, uniqueValue.getTransitions().size());
+
+        assertThrows(IllegalArgumentException.class, () -> SortedColumn.ofCounts(values, new int[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> SortedColumn.ofCounts(new double[]{1}, new int[]{-1}));
+        assertThrows(IllegalArgumentException.class, () -> SortedColumn.ofCounts(new double[]{1}, new int[]{0}));
+        assertThrows(IllegalArgumentException.class, () -> new MDLPDiscretizer().fitCounts(values, counts));
+        assertThrows(IllegalArgumentException.class, () -> new PercentileMedianDiscretizer(4).fitCounts(null, counts));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PercentileMedianDiscretizer(4).fitCounts(new double[0], new int[0]));
+    }
+
+    @Test
+    void testReservoirSampleFit() {
+        double[] values = new Random(31).doubles(100000).toArray();
+        ColumnSample sample = ColumnSample.reservoir(values, 1000, 7);
+        assertEquals(1000, sample.size());
+        assertFalse(sample.isLabeled());
+        assertArrayEquals(sample.getValues(), ColumnSample.reservoir(values, 1000, 7).getValues());
+        assertFalse(Arrays.equals(sample.getValues(), ColumnSample.reservoir(values, 1000, 8).getValues()));
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertTrue(Arrays.stream(sample.getValues()).allMatch(value -> Arrays.binarySearch(sorted, value) >= 0));
+        // Uniform values, so the sample's mean is close to the column's
+        assertEquals(0.5, Arrays.stream(sample.getValues()).average().getAsDouble(), 0.05);
+
+        PercentileMedianDiscretizer sampled = new PercentileMedianDiscretizer(4);
+        sampled.fit(sample);
+        PercentileMedianDiscretizer plain = new PercentileMedianDiscretizer(4);
+        plain.fit(sample.getValues());
+        assertEquals(plain.getTransitions().toString(), sampled.getTransitions().toString());
+
+        SampleStability stability = SampleStability.of(() -> new PercentileMedianDiscretizer(4), values, null,
+                1000, 7, 5);
+        assertArrayEquals(new int[]{3, 3, 3, 3, 3}, stability.getCutPointCounts());
+        assertTrue(stability.getMaxQuantileDisplacement() < 0.1, stability.toString());
+
+        assertEquals(3, ColumnSample.reservoir(new double[]{1, 2, 3}, 10, 7).size());
+        assertThrows(IllegalArgumentException.class, () -> ColumnSample.reservoir(values, 0, 7));
+    }
+
+    @Test
+    void testSelectionFitMatchesSortedFit() {
+        Random random = new Random(3);
+        for (int run = 0; run < 200; run++) {
+            int size = 1 + random.nextInt(run < 100 ? 100 : 5000);
+            double[] values = new double[size];
+            int distinct = 1 + random.nextInt(size);
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(distinct) - distinct / 2;
+            }
+            if (run % 10 == 0) {
+                Arrays.sort(values);
+            }
+            int classCount = 1 + random.nextInt(Math.min(size, 50));
+
+            PercentileMedianDiscretizer selected = new PercentileMedianDiscretizer(classCount);
+            selected.fit(values);
+            PercentileMedianDiscretizer sorted = new PercentileMedianDiscretizer(classCount);
+            sorted.fit(SortedColumn.of(values));
+            assertEquals(sorted.getTransitions().toString(), selected.getTransitions().toString());
+
+            EqualSizeDiscretizer equalSizeSelected = new EqualSizeDiscretizer();
+            equalSizeSelected.fit(values);
+            EqualSizeDiscretizer equalSizeSorted = new EqualSizeDiscretizer();
+            equalSizeSorted.fit(SortedColumn.of(values));
+            assertEquals(equalSizeSorted.getTransitions().toString(), equalSizeSelected.getTransitions().toString());
+        }
+    }
+
+    @Test
+    void testIntegerDomainLookupMatchesOrigins() {
+        Random random = new Random(9);
+        double[] ages = new double[1000];
+        for (int i = 0; i < ages.length; i++) {
+            ages[i] = random.nextInt(100);
+        }
+        PercentileMedianDiscretizer percentileMedianDiscretizer = new PercentileMedianDiscretizer(7);
+        percentileMedianDiscretizer.fit(ages);
+        ManualDiscretizer manualDiscretizer = new ManualDiscretizer(17.5, 30D, 65D);
+        manualDiscretizer.fit(ages);
+
+        List<Double> data = new ArrayList<>();
+        for (int age = -10; age <= 110; age++) {
+            data.add((double) age);
+            data.add(age + 0.5);
+            data.add(Math.nextUp((double) age));
+            data.add(Math.nextDown((double) age));
+        }
+        data.addAll(Arrays.asList(-0D, 1E10, -1E10, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+        double[] values = data.stream().mapToDouble(Double::doubleValue).toArray();
+
+        for (AbstractDiscretizer discretizer
+                : Arrays.asList(percentileMedianDiscretizer, manualDiscretizer)) {
+            double[] discretized = discretizer.apply(values);
+            for (int i = 0; i < values.length; i++) {
+                Double value = values[i];
+                DiscretizationTransition expected = discretizer.getTransitions().stream()
+                        .filter(t -> t.getDiscretizationOrigin().canDiscretize(value)).findFirst().get();
+                assertEquals(expected.getDiscretizedValue().doubleValue(), discretized[i], "value " + value);
+            }
+        }
+    }
+
+    @Test
+    void testFitReport() {
+        double[] values = new Random(53).doubles(10000).toArray();
+        PercentileMedianDiscretizer percentileMedianDiscretizer = new PercentileMedianDiscretizer(5);
+        percentileMedianDiscretizer.enableFitReport();
+        percentileMedianDiscretizer.fit(values);
+        FitReport report = percentileMedianDiscretizer.getFitReport();
+
+        // Values are selected rather than sorted
+        assertEquals(Arrays.asList("select", "compile"), new ArrayList<>(report.getPhaseNanos().keySet()));
+        assertTrue(report.getTotalNanos() > 0, report.toString());
+        assertTrue(report.getPeakScratchBytes() >= 8L * values.length, report.toString());
+        assertEquals(0, report.getCandidatesEvaluated());
+    }
 }
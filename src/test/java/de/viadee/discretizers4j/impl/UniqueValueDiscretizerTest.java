@@ -1,9 +1,20 @@
 package de.viadee.discretizers4j.impl;
 
+import de.viadee.discretizers4j.CategoricalDiscretizationOrigin;
+import de.viadee.discretizers4j.DiscretizationTransition;
+import de.viadee.discretizers4j.SortedColumn;
+import de.viadee.discretizers4j.StreamingFitter;
 import org.junit.jupiter.api.Test;
 
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class UniqueValueDiscretizerTest {
 
@@ -16,4 +27,74 @@ class UniqueValueDiscretizerTest {
         assertArrayEquals(new Double[]{0D, 1D, 2D, 3D, 0D, 4D, 1D}, discretizedValues);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testManyLevelsLookup() {
+        String[] levels = new String[20000];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = "level" + i;
+        }
+        UniqueValueDiscretizer uniqueValueDiscretizer = new UniqueValueDiscretizer();
+        uniqueValueDiscretizer.fit(levels);
+
+        for (DiscretizationTransition transition : uniqueValueDiscretizer.getTransitions()) {
+            String level = (String) ((CategoricalDiscretizationOrigin) transition.getDiscretizationOrigin()).getValue();
+            assertEquals(transition.getDiscretizedValue(), uniqueValueDiscretizer.apply(level));
+            assertEquals(transition, uniqueValueDiscretizer.getTransition(transition.getDiscretizedValue()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> uniqueValueDiscretizer.apply("unknown"));
+        assertThrows(IllegalArgumentException.class, () -> uniqueValueDiscretizer.getTransition(-1D));
+    }
+
+    @Test
+    void testStreamingFitMatchesFit() {
+        UniqueValueDiscretizer uniqueValueDiscretizer = new UniqueValueDiscretizer();
+        uniqueValueDiscretizer.fit(new String[]{"a", "b", "c", "d", "a", "e", "b"});
+
+        StreamingFitter<UniqueValueDiscretizer> fitter = new UniqueValueDiscretizer().streamingFitter();
+        fitter.feed(new String[]{"a", "b", "c"});
+        fitter.feed(new String[]{"d", "a", "e", "b"});
+        UniqueValueDiscretizer streamed = fitter.finish();
+
+        String[] data = {"e", "d", "c", "b", "a"};
+        assertArrayEquals(uniqueValueDiscretizer.apply(data), streamed.apply(data));
+    }
+
+    @Test
+    void testFitWithoutSortedColumnMatchesSortedFit() {
+        double[] values = {15, 50, -0.0, 95, 3, 0.0, 95};
+        UniqueValueDiscretizer uniqueValueDiscretizer = new UniqueValueDiscretizer();
+        uniqueValueDiscretizer.fit(values);
+        UniqueValueDiscretizer sorted = new UniqueValueDiscretizer();
+        sorted.fit(SortedColumn.of(values));
+        assertEquals(sorted.getTransitions().toString(), uniqueValueDiscretizer.getTransitions().toString());
+        assertArrayEquals(sorted.apply(values), uniqueValueDiscretizer.apply(values));
+    }
+
+    @Test
+    void testStreamingFitKeepsLevelTypes() {
+        UniqueValueDiscretizer batch = new UniqueValueDiscretizer();
+        batch.fit(new Integer[]{3, 1, 2, 1});
+
+        StreamingFitter<UniqueValueDiscretizer> fitter = new UniqueValueDiscretizer().streamingFitter();
+        fitter.feed(new Integer[]{3, 1});
+        fitter.feed(new Integer[]{2, 1});
+        assertThrows(IllegalArgumentException.class, () -> fitter.feed(new double[]{4D}));
+        assertEquals(levels(batch), levels(fitter.finish()));
+        assertEquals(Arrays.asList(1, 2, 3), levels(batch));
+
+        UniqueValueDiscretizer batchDoubles = new UniqueValueDiscretizer();
+        batchDoubles.fit(new double[]{3, 1, 2, 1});
+        StreamingFitter<UniqueValueDiscretizer> doubleFitter = new UniqueValueDiscretizer().streamingFitter();
+        doubleFitter.feed(new double[]{3, 1});
+        doubleFitter.feed(new double[]{2, 1});
+        assertEquals(levels(batchDoubles), levels(doubleFitter.finish()));
+        assertEquals(Arrays.asList(1D, 2D, 3D), levels(batchDoubles));
+    }
+
+    private static List<Serializable> levels(UniqueValueDiscretizer discretizer) {
+        return discretizer.getTransitions().stream()
+                .sorted(Comparator.comparingDouble(DiscretizationTransition::getDiscretizedValue))
+                .map(t -> ((CategoricalDiscretizationOrigin) t.getDiscretizationOrigin()).getValue())
+                .collect(Collectors.toList());
+    }
+}